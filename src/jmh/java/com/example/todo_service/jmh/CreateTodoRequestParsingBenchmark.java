@@ -0,0 +1,42 @@
+package com.example.todo_service.jmh;
+
+import com.example.todo_service.api.dto.CreateTodoRequest;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CreateTodoRequestParsingBenchmark {
+
+    @Param({"2026-02-01T10:00:00Z", "2026-02-01T10:00:00.123456+02:00"})
+    public String dueAt;
+
+    private byte[] body;
+    private ObjectReader reader;
+
+    @Setup
+    public void setUp() {
+        body = ("{\"description\":\"Complete project documentation\",\"dueAt\":\"" + dueAt + "\"}")
+                .getBytes(StandardCharsets.UTF_8);
+        reader = Fixtures.objectMapper().readerFor(CreateTodoRequest.class);
+    }
+
+    @Benchmark
+    public CreateTodoRequest parseRequest() throws IOException {
+        return reader.readValue(body);
+    }
+
+    @Benchmark
+    public OffsetDateTime parseTimestamp() {
+        return OffsetDateTime.parse(dueAt);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.todo_service.jmh;
+
+import com.example.todo_service.domain.TodoItem;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /*
+     * Same configuration Spring Boot applies to the HTTP message converters:
+     * Jackson2ObjectMapperBuilder defaults plus ISO-8601 dates.
+     */
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    static TodoItem item(long id) {
+        TodoItem item = new TodoItem(
+                "Benchmark task number " + id,
+                OffsetDateTime.now().plusDays(id % 30));
+        ReflectionTestUtils.setField(item, "id", id);
+        if (id % 3 == 0) {
+            item.markDone();
+        }
+        return item;
+    }
+
+    static List<TodoItem> items(int count) {
+        List<TodoItem> items = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            items.add(item(i));
+        }
+        return items;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.todo_service.jmh;
+
+import com.example.todo_service.TodoServiceApplication;
+import com.example.todo_service.api.cache.TodoListingSnapshots;
+import com.example.todo_service.api.dto.TodoResponse;
+import com.example.todo_service.benchmark.TodoDatasetGenerator;
+import com.example.todo_service.domain.TodoItem;
+import com.example.todo_service.domain.TodoSnapshot;
+import com.example.todo_service.domain.TodoStatus;
+import com.example.todo_service.service.TodoService;
+import com.example.todo_service.service.event.TodoChange;
+import com.example.todo_service.service.event.TodoChangeType;
+import com.example.todo_service.service.event.TodoChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * The default listing as it used to be produced on every request (query,
+ * mapping, serialization) versus a hit on the pre-serialized snapshot, and
+ * the cost of rebuilding a snapshot after a write dropped it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ListingSnapshotBenchmark {
+
+    @Param({"10000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private TodoService service;
+    private TodoListingSnapshots snapshots;
+    private ObjectMapper objectMapper;
+    private TodoChangedEvent write;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(TodoServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:listing-snapshot;OPTIMIZE_REUSE_RESULTS=0",
+                        "--spring.main.banner-mode=off",
+                        "--todo.deadlines.enabled=false",
+                        "--logging.level.root=WARN");
+        TodoDatasetGenerator.seed(context.getBean(JdbcTemplate.class), rows);
+        service = context.getBean(TodoService.class);
+        snapshots = context.getBean(TodoListingSnapshots.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        TodoSnapshot item = new TodoSnapshot(1L, TodoItem.DEFAULT_OWNER, "Benchmark task", TodoStatus.NOT_DONE,
+                OffsetDateTime.now(), OffsetDateTime.now().plusDays(1), null);
+        write = TodoChangedEvent.of(TodoChangeType.DESCRIPTION_CHANGED, TodoChange.of(item, item));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] queryAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(service.getNotDone(TodoItem.DEFAULT_OWNER).stream()
+                .map(TodoResponse::from)
+                .toList());
+    }
+
+    @Benchmark
+    public byte[] snapshotHit() {
+        return snapshots.notDone(TodoItem.DEFAULT_OWNER).body(true);
+    }
+
+    @Benchmark
+    public byte[] snapshotRebuild() {
+        snapshots.onTodoChanged(write);
+        return snapshots.notDone(TodoItem.DEFAULT_OWNER).body(true);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.todo_service.jmh;
+
+import com.example.todo_service.TodoServiceApplication;
+import com.example.todo_service.api.dto.TodoResponse;
+import com.example.todo_service.benchmark.TodoDatasetGenerator;
+import com.example.todo_service.domain.TodoItem;
+import com.example.todo_service.domain.TodoStatus;
+import com.example.todo_service.repository.TodoItemRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * The NOT_DONE listing read as managed entities (the old read path) versus
+ * TodoView constructor projections, both mapped to TodoResponse inside a
+ * read-only transaction like the service does. Run with -prof gc to compare
+ * gc.alloc.rate.norm per listing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReadPathBenchmark {
+
+    @Param({"10000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private TodoItemRepository repository;
+    private TransactionTemplate readOnly;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(TodoServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:read-path;OPTIMIZE_REUSE_RESULTS=0",
+                        "--spring.main.banner-mode=off",
+                        "--todo.deadlines.enabled=false",
+                        "--logging.level.root=WARN");
+        TodoDatasetGenerator.seed(context.getBean(JdbcTemplate.class), rows);
+        repository = context.getBean(TodoItemRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<TodoResponse> entities() {
+        return readOnly.execute(status -> repository.findByOwnerIdAndStatus(TodoItem.DEFAULT_OWNER, TodoStatus.NOT_DONE).stream()
+                .map(TodoResponse::from)
+                .toList());
+    }
+
+    @Benchmark
+    public List<TodoResponse> projections() {
+        return readOnly.execute(status -> repository.findViewsByOwnerAndStatus(TodoItem.DEFAULT_OWNER, TodoStatus.NOT_DONE).stream()
+                .map(TodoResponse::from)
+                .toList());
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.todo_service.jmh;
+
+import com.example.todo_service.TodoServiceApplication;
+import com.example.todo_service.benchmark.TodoDatasetGenerator;
+import com.example.todo_service.domain.TodoItem;
+import com.example.todo_service.domain.TodoStatus;
+import com.example.todo_service.repository.TodoView;
+import com.example.todo_service.service.search.SearchHit;
+import com.example.todo_service.service.search.TodoSearchIndex;
+import com.example.todo_service.service.search.TodoSearchQuery;
+import com.example.todo_service.service.search.TodoSearchService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * GET /todos/search at 1M rows. Descriptions are "<verb> <noun> for
+ * <client> ref<n>": verbs match ~5% of rows each, "ref<n>" about ten rows,
+ * and the prefix "ref1" roughly 110,000 rows across 11,000 terms. Every
+ * thousandth row belongs to a small owner, whose searches should not pay
+ * for the rest of the table. The setup prints how long the startup load
+ * of the index took.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+
+    private static final String VERBS = words("review", "write", "fix", "plan", "call", "email", "update", "prepare",
+            "check", "book", "order", "schedule", "draft", "submit", "clean", "test", "deploy", "design", "file", "pay");
+    private static final String NOUNS = words("report", "invoice", "budget", "meeting", "release", "contract",
+            "roadmap", "proposal", "slides", "backlog", "survey", "newsletter", "migration", "audit", "onboarding",
+            "dashboard", "handbook", "forecast", "interview", "workshop");
+    private static final String CLIENTS = words("acme", "globex", "initech", "umbrella", "hooli", "stark", "wayne",
+            "wonka", "tyrell", "cyberdyne");
+
+    private static final String SMALL_OWNER = "small";
+
+    @Param({"1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private TodoSearchIndex index;
+    private TodoSearchService service;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(TodoServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:search",
+                        "--spring.main.banner-mode=off",
+                        "--todo.deadlines.enabled=false",
+                        "--todo.stats.reconcile-interval=PT1H",
+                        "--logging.level.root=WARN");
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        TodoDatasetGenerator.seed(jdbc, rows, """
+                ARRAY_GET(%s, MOD(X, 20) + 1) || ' ' ||
+                ARRAY_GET(%s, MOD(X * 7, 20) + 1) || ' for ' ||
+                ARRAY_GET(%s, MOD(X * 13, 10) + 1) || ' ref' || MOD(X * 31, 100000)
+                """.formatted(VERBS, NOUNS, CLIENTS));
+        jdbc.update("UPDATE todo_items SET owner_id = ? WHERE MOD(id, 1000) = 0", SMALL_OWNER);
+
+        index = context.getBean(TodoSearchIndex.class);
+        service = context.getBean(TodoSearchService.class);
+        long start = System.nanoTime();
+        index.load();
+        System.out.printf("%nSearch index load of %,d rows: %,d ms on %d CPU(s)%n",
+                rows, (System.nanoTime() - start) / 1_000_000, Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<SearchHit> rareTerm() {
+        return index.search(query("ref4242", null));
+    }
+
+    @Benchmark
+    public List<SearchHit> twoCommonWords() {
+        return index.search(query("review budget", null));
+    }
+
+    @Benchmark
+    public List<SearchHit> broadPrefix() {
+        return index.search(query("ref1", null));
+    }
+
+    @Benchmark
+    public List<SearchHit> commonWordOpenOnly() {
+        return index.search(query("invoice", Set.of(TodoStatus.NOT_DONE)));
+    }
+
+    @Benchmark
+    public List<SearchHit> commonWordSmallOwner() {
+        return index.search(new TodoSearchQuery(SMALL_OWNER, "invoice", null, null, null, 20));
+    }
+
+    @Benchmark
+    public List<TodoView> endToEndWithRows() {
+        return service.search(query("review budget acme", null));
+    }
+
+    private static TodoSearchQuery query(String text, Set<TodoStatus> statuses) {
+        return new TodoSearchQuery(TodoItem.DEFAULT_OWNER, text, statuses, null, OffsetDateTime.now().plusDays(60), 20);
+    }
+
+    private static String words(String... words) {
+        return "ARRAY['" + String.join("','", words) + "']";
+    }
+}
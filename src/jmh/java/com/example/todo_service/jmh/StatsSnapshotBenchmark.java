@@ -0,0 +1,77 @@
+package com.example.todo_service.jmh;
+
+import com.example.todo_service.domain.TodoItem;
+import com.example.todo_service.domain.TodoSnapshot;
+import com.example.todo_service.domain.TodoStatus;
+import com.example.todo_service.service.event.TodoChange;
+import com.example.todo_service.service.event.TodoChangeType;
+import com.example.todo_service.service.event.TodoChangedEvent;
+import com.example.todo_service.service.stats.TodoStatistics;
+import com.example.todo_service.service.stats.TodoStats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Reading GET /todos/stats aggregates, and applying one change to them, at
+ * different data sizes. Items are due anywhere in the next 60 days and a
+ * third of them are done.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatsSnapshotBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int items;
+
+    private TodoStatistics statistics;
+    private TodoChangedEvent done;
+    private TodoChangedEvent undone;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        statistics = new TodoStatistics(null, null, new SimpleMeterRegistry());
+        SplittableRandom random = new SplittableRandom(42);
+        OffsetDateTime now = OffsetDateTime.now();
+        List<TodoChange> changes = new ArrayList<>(10_000);
+        for (long id = 1; id <= items; id++) {
+            OffsetDateTime createdAt = now.minusMinutes(random.nextInt(60 * 24 * 30));
+            OffsetDateTime dueAt = now.plusMinutes(random.nextInt(60 * 24 * 60));
+            TodoSnapshot item = id % 3 == 0
+                    ? new TodoSnapshot(id, TodoItem.DEFAULT_OWNER, "Task", TodoStatus.DONE, createdAt, dueAt,
+                            createdAt.plusMinutes(random.nextInt(60 * 24 * 7)))
+                    : new TodoSnapshot(id, TodoItem.DEFAULT_OWNER, "Task", TodoStatus.NOT_DONE, createdAt, dueAt, null);
+            changes.add(TodoChange.of(null, item));
+            if (changes.size() == 10_000) {
+                statistics.onTodoChanged(new TodoChangedEvent(TodoChangeType.CREATED, changes));
+                changes.clear();
+            }
+        }
+        statistics.onTodoChanged(new TodoChangedEvent(TodoChangeType.CREATED, changes));
+
+        TodoSnapshot open = new TodoSnapshot(0L, TodoItem.DEFAULT_OWNER, "Toggled", TodoStatus.NOT_DONE, now, now.plusHours(5), null);
+        TodoSnapshot closed = new TodoSnapshot(0L, TodoItem.DEFAULT_OWNER, "Toggled", TodoStatus.DONE, now, now.plusHours(5), now.plusHours(1));
+        done = TodoChangedEvent.of(TodoChangeType.DONE, TodoChange.of(open, closed));
+        undone = TodoChangedEvent.of(TodoChangeType.NOT_DONE, TodoChange.of(closed, open));
+    }
+
+    @Benchmark
+    public TodoStats snapshot() {
+        return statistics.snapshot(TodoItem.DEFAULT_OWNER);
+    }
+
+    @Benchmark
+    public void markDoneThenNotDone() {
+        statistics.onTodoChanged(done);
+        statistics.onTodoChanged(undone);
+    }
+}
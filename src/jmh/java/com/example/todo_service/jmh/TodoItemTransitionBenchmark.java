@@ -0,0 +1,41 @@
+package com.example.todo_service.jmh;
+
+import com.example.todo_service.domain.TodoItem;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TodoItemTransitionBenchmark {
+
+    private TodoItem item;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        item = new TodoItem("Transition task", OffsetDateTime.now().plusDays(1));
+    }
+
+    @Benchmark
+    public TodoItem create() {
+        return new TodoItem("New task", OffsetDateTime.now().plusDays(1));
+    }
+
+    @Benchmark
+    public TodoItem markDoneThenNotDone() {
+        item.markDone();
+        item.markNotDone();
+        return item;
+    }
+
+    @Benchmark
+    public TodoItem changeDescription() {
+        item.changeDescription("Changed task");
+        return item;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.todo_service.jmh;
+
+import com.example.todo_service.api.dto.TodoResponse;
+import com.example.todo_service.domain.TodoItem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TodoResponseMappingBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int size;
+
+    private List<TodoItem> items;
+
+    @Setup
+    public void setUp() {
+        items = Fixtures.items(size);
+    }
+
+    @Benchmark
+    public List<TodoResponse> mapList() {
+        return items.stream()
+                .map(TodoResponse::from)
+                .toList();
+    }
+}
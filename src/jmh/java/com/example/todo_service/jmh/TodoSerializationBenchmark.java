@@ -0,0 +1,38 @@
+package com.example.todo_service.jmh;
+
+import com.example.todo_service.api.dto.TodoResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TodoSerializationBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int size;
+
+    private List<TodoResponse> responses;
+    private ObjectWriter writer;
+
+    @Setup
+    public void setUp() {
+        responses = Fixtures.items(size).stream()
+                .map(TodoResponse::from)
+                .toList();
+        writer = Fixtures.objectMapper().writerFor(
+                Fixtures.objectMapper().getTypeFactory().constructCollectionType(List.class, TodoResponse.class));
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws JsonProcessingException {
+        return writer.writeValueAsBytes(responses);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.todo_service.jmh;
+
+import com.example.todo_service.api.dto.TodoResponse;
+import com.example.todo_service.config.CborConfiguration;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * A listing encoded and decoded as JSON (ISO-8601 dates, enum names) and as
+ * CBOR (epoch millis, enum ordinals), each with the mapper the HTTP message
+ * converters use. Payload sizes are printed once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+    @Param({"100", "10000"})
+    public int size;
+
+    @Param({"json", "cbor"})
+    public String format;
+
+    private List<TodoResponse> responses;
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        responses = Fixtures.items(size).stream()
+                .map(TodoResponse::from)
+                .toList();
+        ObjectMapper mapper = format.equals("cbor") ? CborConfiguration.cborMapper() : Fixtures.objectMapper();
+        JavaType listType = mapper.getTypeFactory().constructCollectionType(List.class, TodoResponse.class);
+        writer = mapper.writerFor(listType);
+        reader = mapper.readerFor(listType);
+        payload = writer.writeValueAsBytes(responses);
+        System.out.printf("%n%s, %,d items: %,d bytes (%.1f per item)%n",
+                format, size, payload.length, (double) payload.length / size);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return writer.writeValueAsBytes(responses);
+    }
+
+    @Benchmark
+    public List<TodoResponse> decode() throws IOException {
+        return reader.readValue(payload);
+    }
+}
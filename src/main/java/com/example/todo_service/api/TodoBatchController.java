@@ -0,0 +1,78 @@
+package com.example.todo_service.api;
+
+import com.example.todo_service.api.dto.BatchResponse;
+import com.example.todo_service.api.dto.CreateTodoRequest;
+import com.example.todo_service.service.batch.BatchItemOutcome;
+import com.example.todo_service.service.batch.BatchItemResult;
+import com.example.todo_service.service.batch.NewTodo;
+import com.example.todo_service.service.batch.TodoBatchService;
+import com.example.todo_service.service.writebehind.TodoStatusWriteBehind;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/todos/batch")
+public class TodoBatchController {
+
+    private final TodoBatchService service;
+    private final TodoStatusWriteBehind statusWrites;
+
+    public TodoBatchController(TodoBatchService service, TodoStatusWriteBehind statusWrites) {
+        this.service = service;
+        this.statusWrites = statusWrites;
+    }
+
+    /*
+     * An entry whose ownerId is malformed or disagrees with the header is
+     * reported INVALID on its own; the rest of the batch is still created.
+     */
+    @PostMapping
+    public BatchResponse create(
+            @RequestBody List<CreateTodoRequest> requests,
+            @RequestHeader(value = TodoOwners.HEADER, required = false) String owner) {
+        Map<Integer, String> ownerErrors = new HashMap<>();
+        List<NewTodo> todos = new ArrayList<>(requests.size());
+        for (CreateTodoRequest request : requests) {
+            todos.add(request == null ? null : newTodo(request, owner, todos.size(), ownerErrors));
+        }
+        List<BatchItemResult> results = service.addTodos(todos);
+        if (ownerErrors.isEmpty()) {
+            return BatchResponse.from(results);
+        }
+        return BatchResponse.from(results.stream()
+                .map(result -> ownerErrors.containsKey(result.index())
+                        ? new BatchItemResult(result.index(), null, BatchItemOutcome.INVALID, ownerErrors.get(result.index()), null)
+                        : result)
+                .toList());
+    }
+
+    @PatchMapping("/done")
+    public BatchResponse markDone(
+            @RequestBody List<Long> ids,
+            @RequestHeader(value = TodoOwners.HEADER, required = false) String owner) {
+        statusWrites.settle(ids);
+        return BatchResponse.from(service.markDone(TodoOwners.of(owner), ids));
+    }
+
+    @PatchMapping("/not-done")
+    public BatchResponse markNotDone(
+            @RequestBody List<Long> ids,
+            @RequestHeader(value = TodoOwners.HEADER, required = false) String owner) {
+        statusWrites.settle(ids);
+        return BatchResponse.from(service.markNotDone(TodoOwners.of(owner), ids));
+    }
+
+    /* null, with the reason recorded under index, when the entry's owner is not acceptable. */
+    private static NewTodo newTodo(CreateTodoRequest request, String owner, int index, Map<Integer, String> ownerErrors) {
+        try {
+            return new NewTodo(TodoOwners.forCreate(owner, request.getOwnerId()), request.getDescription(), request.getDueAt());
+        } catch (IllegalArgumentException e) {
+            ownerErrors.put(index, e.getMessage());
+            return null;
+        }
+    }
+}
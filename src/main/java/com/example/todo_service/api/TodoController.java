@@ -1,68 +1,326 @@
 package com.example.todo_service.api;
 
+import com.example.todo_service.api.cache.TodoChangeWatermark;
+import com.example.todo_service.api.cache.TodoListingSnapshots;
+import com.example.todo_service.api.cache.TodoResponseCache;
 import com.example.todo_service.api.dto.CreateTodoRequest;
+import com.example.todo_service.api.dto.TodoPageResponse;
 import com.example.todo_service.api.dto.TodoResponse;
 import com.example.todo_service.api.dto.UpdateDescriptionRequest;
+import com.example.todo_service.api.export.TodoExportFormat;
 import com.example.todo_service.domain.TodoItem;
+import com.example.todo_service.domain.TodoStatus;
+import com.example.todo_service.repository.TodoView;
+import com.example.todo_service.service.TodoExportService;
 import com.example.todo_service.service.TodoService;
+import com.example.todo_service.service.exception.TodoNotFoundException;
+import com.example.todo_service.service.query.TodoCursor;
+import com.example.todo_service.service.query.TodoPageQuery;
+import com.example.todo_service.service.query.TodoSortKey;
+import com.example.todo_service.service.search.TodoSearchQuery;
+import com.example.todo_service.service.search.TodoSearchService;
+import com.example.todo_service.service.writebehind.TodoStatusWriteBehind;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/todos")
 public class TodoController {
 
+    /* Both pick the listing's body, so both are on every listing response, 304s included. */
+    private static final String LISTING_VARY = HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING;
+
     private final TodoService service;
+    private final TodoExportService exportService;
+    private final TodoSearchService searchService;
+    private final TodoStatusWriteBehind statusWrites;
+    private final TodoResponseCache responseCache;
+    private final TodoListingSnapshots listingSnapshots;
+    private final TodoChangeWatermark watermark;
+    private final ObjectMapper objectMapper;
+    private final int maxPageSize;
+    private final int maxSearchResults;
 
-    public TodoController(TodoService service) {
+    public TodoController(
+            TodoService service,
+            TodoExportService exportService,
+            TodoSearchService searchService,
+            TodoStatusWriteBehind statusWrites,
+            TodoResponseCache responseCache,
+            TodoListingSnapshots listingSnapshots,
+            TodoChangeWatermark watermark,
+            ObjectMapper objectMapper,
+            @Value("${todo.listing.max-page-size:500}") int maxPageSize,
+            @Value("${todo.search.max-results:100}") int maxSearchResults) {
         this.service = service;
+        this.exportService = exportService;
+        this.searchService = searchService;
+        this.statusWrites = statusWrites;
+        this.responseCache = responseCache;
+        this.listingSnapshots = listingSnapshots;
+        this.watermark = watermark;
+        this.objectMapper = objectMapper;
+        this.maxPageSize = maxPageSize;
+        this.maxSearchResults = maxSearchResults;
     }
 
+    /*
+     * Every endpoint works on the items of the X-Owner-Id owner (see
+     * TodoOwners). Items of other owners behave as if they did not exist.
+     */
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public TodoResponse create(@RequestBody CreateTodoRequest request) {
+    public TodoResponse create(
+            @RequestBody CreateTodoRequest request,
+            @RequestHeader(value = TodoOwners.HEADER, required = false) String owner) {
         TodoItem item = service.addTodo(
+                TodoOwners.forCreate(owner, request.getOwnerId()),
                 request.getDescription(),
                 request.getDueAt());
         return TodoResponse.from(item);
     }
 
+    /*
+     * Listings carry the owner's change watermark as ETag. A matching
+     * If-None-Match is answered with 304 before any query runs. Transitions
+     * not yet written by write-behind are applied on top of the query
+     * result; the watermark does not cover them yet, so while the owner has
+     * any the listing is always sent.
+     *
+     * The default listing is sent from the owner's pre-serialized snapshot
+     * instead, gzipped when the client accepts it, with a hash of the body
+     * as ETag. The snapshot is JSON; CBOR clients get the regular path.
+     * Responses vary by Accept and Accept-Encoding either way.
+     */
     @GetMapping
-    public List<TodoResponse> getAll(
-            @RequestParam(defaultValue = "false") boolean includeDone) {
-        List<TodoItem> items = includeDone
-                ? service.getAll()
-                : service.getNotDone();
+    public ResponseEntity<?> getAll(
+            @RequestParam(defaultValue = "false") boolean includeDone,
+            @RequestHeader(value = TodoOwners.HEADER, required = false) String owner,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest,
+            HttpServletResponse servletResponse) {
+        String ownerId = TodoOwners.of(owner);
+        servletResponse.setHeader(HttpHeaders.VARY, LISTING_VARY);
+        boolean cbor = acceptsCbor(accept);
+        boolean pending = statusWrites.hasPending(ownerId);
+        if (!includeDone && !cbor && !pending) {
+            return snapshot(listingSnapshots.notDone(ownerId), acceptsGzip(acceptEncoding), webRequest);
+        }
+        if (!pending && webRequest.checkNotModified(watermark.etag(ownerId, cbor))) {
+            return null;
+        }
+        List<TodoView> items = includeDone
+                ? statusWrites.overlay(ownerId, service.getAll(ownerId), null)
+                : statusWrites.overlay(ownerId, service.getNotDone(ownerId), TodoStatus.NOT_DONE);
 
-        return items.stream()
+        return ResponseEntity.ok(items.stream()
+                .map(TodoResponse::from)
+                .toList());
+    }
+
+    /*
+     * Paginated listing, selected by the presence of "limit". Page sizes above
+     * the configured cap are clamped. Tagged with the watermark like getAll.
+     */
+    @GetMapping(params = "limit")
+    public TodoPageResponse getPage(
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(required = false) Set<TodoStatus> status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime dueFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime dueTo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime createdTo,
+            @RequestHeader(value = TodoOwners.HEADER, required = false) String owner,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            WebRequest webRequest,
+            HttpServletResponse servletResponse) {
+        String ownerId = TodoOwners.of(owner);
+        servletResponse.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (webRequest.checkNotModified(watermark.etag(ownerId, acceptsCbor(accept)))) {
+            return null;
+        }
+        TodoPageQuery query = new TodoPageQuery(
+                ownerId,
+                status,
+                dueFrom,
+                dueTo,
+                createdFrom,
+                createdTo,
+                TodoSortKey.fromParam(sort),
+                cursor == null ? null : TodoCursor.decode(cursor),
+                Math.min(limit, maxPageSize));
+
+        return TodoPageResponse.from(service.getPage(query));
+    }
+
+    /*
+     * Ranked full-text search over descriptions; every word of q matches
+     * words starting with it. Served from the in-memory index, only the hits
+     * are read from the database.
+     */
+    @GetMapping("/search")
+    public List<TodoResponse> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) Set<TodoStatus> status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime dueFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime dueTo,
+            @RequestHeader(value = TodoOwners.HEADER, required = false) String owner) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Search limit must be positive");
+        }
+        TodoSearchQuery query = new TodoSearchQuery(TodoOwners.of(owner), q, status, dueFrom, dueTo, Math.min(limit, maxSearchResults));
+        return searchService.search(query).stream()
                 .map(TodoResponse::from)
                 .toList();
     }
 
+    /*
+     * Streams rows to the client as they are read from the database cursor;
+     * nothing is collected into a list on the way.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean includeDone,
+            @RequestHeader(value = TodoOwners.HEADER, required = false) String owner) {
+        TodoExportFormat exportFormat = TodoExportFormat.fromParam(format);
+        String ownerId = TodoOwners.of(owner);
+
+        StreamingResponseBody body = outputStream -> {
+            Writer out = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            TodoExportFormat.RowWriter rows = exportFormat.open(out, objectMapper);
+            exportService.export(ownerId, includeDone, view -> rows.writeUnchecked(TodoResponse.from(view)));
+            out.flush();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("todos." + exportFormat.param())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    /*
+     * The ETag is the item version. A matching If-None-Match is answered with
+     * 304 from the cached snapshot, without serializing the body. The cache
+     * is keyed by id alone; ownership is checked on every hit. A pending
+     * write-behind transition takes precedence over the cache. JSON and CBOR
+     * bodies are told apart by the tag suffix and Vary: Accept.
+     */
     @GetMapping("/{id}")
-    public TodoResponse getById(@PathVariable Long id) {
-        return TodoResponse.from(service.getById(id));
+    public ResponseEntity<TodoResponse> getById(
+            @PathVariable Long id,
+            @RequestHeader(value = TodoOwners.HEADER, required = false) String owner,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        String ownerId = TodoOwners.of(owner);
+        TodoResponse response = statusWrites.pendingView(id)
+                .map(TodoResponse::from)
+                .orElseGet(() -> responseCache.get(ownerId, id));
+        if (!response.getOwnerId().equals(ownerId)) {
+            throw new TodoNotFoundException(id);
+        }
+        return ResponseEntity.ok()
+                .eTag(TodoETags.of(response, acceptsCbor(accept)))
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(response);
     }
 
+    /*
+     * PATCH endpoints honour If-Match: a stale version is rejected with 412
+     * instead of overwriting someone else's change.
+     */
     @PatchMapping("/{id}/description")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void updateDescription(
             @PathVariable Long id,
-            @RequestBody UpdateDescriptionRequest request) {
-        service.changeDescription(id, request.getDescription());
+            @RequestBody UpdateDescriptionRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = TodoOwners.HEADER, required = false) String owner) {
+        statusWrites.settle(List.of(id));
+        service.changeDescription(
+                TodoOwners.of(owner),
+                id,
+                request.getDescription(),
+                TodoETags.expectedVersion(ifMatch));
     }
 
+    /*
+     * With todo.write-behind.enabled, done / not-done without If-Match are
+     * acknowledged once applied in memory and written shortly after.
+     */
     @PatchMapping("/{id}/done")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void markDone(@PathVariable Long id) {
-        service.markDone(id);
+    public void markDone(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = TodoOwners.HEADER, required = false) String owner) {
+        statusWrites.markDone(TodoOwners.of(owner), id, TodoETags.expectedVersion(ifMatch));
     }
 
     @PatchMapping("/{id}/not-done")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void markNotDone(@PathVariable Long id) {
-        service.markNotDone(id);
+    public void markNotDone(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = TodoOwners.HEADER, required = false) String owner) {
+        statusWrites.markNotDone(TodoOwners.of(owner), id, TodoETags.expectedVersion(ifMatch));
+    }
+
+    private static ResponseEntity<byte[]> snapshot(
+            TodoListingSnapshots.Snapshot snapshot,
+            boolean gzipped,
+            WebRequest webRequest) {
+        if (webRequest.checkNotModified(snapshot.etag(gzipped))) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzipped) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(snapshot.body(gzipped));
+    }
+
+    private static boolean acceptsCbor(String accept) {
+        return accept != null && MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(type -> type.equalsTypeAndSubtype(MediaType.APPLICATION_CBOR) && type.getQualityValue() > 0);
+    }
+
+    /* gzip listed in Accept-Encoding and not refused with q=0. */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0{0,3})?");
+            }
+        }
+        return false;
     }
 }
@@ -0,0 +1,46 @@
+package com.example.todo_service.api;
+
+import com.example.todo_service.api.dto.TodoResponse;
+
+/*
+ * Entity tags for single todo items, derived from the @Version column.
+ * The CBOR representation is tagged with a -cbor suffix, which If-Match
+ * accepts as well.
+ */
+final class TodoETags {
+
+    private TodoETags() {
+    }
+
+    private static final String CBOR_SUFFIX = "-cbor";
+
+    static String of(TodoResponse response, boolean cbor) {
+        return "\"" + response.getVersion() + (cbor ? CBOR_SUFFIX : "") + "\"";
+    }
+
+    /*
+     * Parses an If-Match header into the expected version. Returns null when
+     * the header is absent or "*", i.e. when no version check is requested.
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new IllegalArgumentException("Malformed If-Match header: " + ifMatch);
+        }
+        String version = tag.substring(1, tag.length() - 1);
+        if (version.endsWith(CBOR_SUFFIX)) {
+            version = version.substring(0, version.length() - CBOR_SUFFIX.length());
+        }
+        try {
+            return Long.parseLong(version);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed If-Match header: " + ifMatch, e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.todo_service.api;
+
+import com.example.todo_service.api.stream.TodoChangeStream;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/todos/events")
+public class TodoEventController {
+
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+
+    private final TodoChangeStream stream;
+
+    public TodoEventController(TodoChangeStream stream) {
+        this.stream = stream;
+    }
+
+    /*
+     * Server-Sent Events: "ready" on connect, then "change" events carrying
+     * a type and the affected ids of the X-Owner-Id owner's items.
+     * EventSource clients resume automatically by sending Last-Event-ID;
+     * "reset" means changes were missed and listings must be refetched.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(
+            @RequestHeader(value = LAST_EVENT_ID, required = false) String lastEventId,
+            @RequestHeader(value = TodoOwners.HEADER, required = false) String owner) {
+        return stream.subscribe(TodoOwners.of(owner), lastEventId);
+    }
+}
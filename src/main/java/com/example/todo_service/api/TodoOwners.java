@@ -0,0 +1,50 @@
+package com.example.todo_service.api;
+
+import com.example.todo_service.domain.TodoItem;
+
+import java.util.regex.Pattern;
+
+/*
+ * Owner (tenant) of a request, taken from the X-Owner-Id header. The header
+ * is a partition key set by whatever authenticates the caller in front of
+ * the service; requests without it belong to the default owner.
+ */
+final class TodoOwners {
+
+    static final String HEADER = "X-Owner-Id";
+
+    private static final Pattern VALID = Pattern.compile("[A-Za-z0-9._:@-]{1,64}");
+
+    private TodoOwners() {
+    }
+
+    static String of(String header) {
+        if (header == null || header.isBlank()) {
+            return TodoItem.DEFAULT_OWNER;
+        }
+        return validate(header.trim());
+    }
+
+    /*
+     * Owner of a new item: the ownerId of the body, which must agree with
+     * the header when both are present.
+     */
+    static String forCreate(String header, String requested) {
+        if (requested == null) {
+            return of(header);
+        }
+        String owner = validate(requested);
+        if (header != null && !header.isBlank() && !owner.equals(header.trim())) {
+            throw new IllegalArgumentException("ownerId does not match the " + HEADER + " header");
+        }
+        return owner;
+    }
+
+    private static String validate(String owner) {
+        if (!VALID.matcher(owner).matches()) {
+            throw new IllegalArgumentException(
+                    "Owner id must be 1-64 letters, digits or any of . _ : @ -");
+        }
+        return owner;
+    }
+}
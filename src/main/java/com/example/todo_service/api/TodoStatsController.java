@@ -0,0 +1,28 @@
+package com.example.todo_service.api;
+
+import com.example.todo_service.api.dto.TodoStatsResponse;
+import com.example.todo_service.service.stats.TodoStatistics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/todos/stats")
+public class TodoStatsController {
+
+    private final TodoStatistics statistics;
+
+    public TodoStatsController(TodoStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /*
+     * The X-Owner-Id owner's figures, served from in-memory aggregates kept
+     * current by change events; no query runs.
+     */
+    @GetMapping
+    public TodoStatsResponse get(@RequestHeader(value = TodoOwners.HEADER, required = false) String owner) {
+        return TodoStatsResponse.from(statistics.snapshot(TodoOwners.of(owner)));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.todo_service.api.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+
+/*
+ * Cap on requests in flight that adapts to how the service copes (AIMD).
+ * A request that finishes within the latency target while the limit is at
+ * least half used grows the limit by 1/limit, about +1 per limit's worth of
+ * requests. A request that is slower, or that failed because the database
+ * was busy, cuts it by the backoff factor. Requests over the limit are shed
+ * at once instead of queueing in front of the connection pool. Both
+ * counters are updated with CAS only.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long latencyTargetNanos) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min <= initial <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = latencyTargetNanos;
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(initialLimit));
+    }
+
+    public boolean tryAcquire() {
+        int limit = limit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /* Ends a request without feeding the limit, e.g. one that went async. */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public void release(long latencyNanos, boolean overloaded) {
+        int current = inFlight.getAndDecrement();
+        if (overloaded || latencyNanos > latencyTargetNanos) {
+            update(limit -> Math.max(minLimit, limit * BACKOFF));
+        } else if (current * 2 >= limit()) {
+            update(limit -> Math.min(maxLimit, limit + 1 / limit));
+        }
+    }
+
+    public int limit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private void update(DoubleUnaryOperator change) {
+        while (true) {
+            long current = limitBits.get();
+            long next = Double.doubleToLongBits(change.applyAsDouble(Double.longBitsToDouble(current)));
+            if (limitBits.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.todo_service.api.admission;
+
+import com.example.todo_service.api.error.ApiErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Admission control in front of the /todos endpoints, before any handler or
+ * database work:
+ * - a token bucket per client and cost class (RequestCost); a client over
+ *   its rate gets 429 with Retry-After;
+ * - an adaptive cap on requests in flight across all clients; requests over
+ *   it get 503 at once instead of queueing for a connection.
+ *
+ * The client is the X-Owner-Id header for requests from a trusted proxy,
+ * and the remote address combined with the header for anyone else (see
+ * ClientKeys). The change stream only counts against the rate: its
+ * connections stay open for minutes and would pin the concurrency limit.
+ */
+@Component
+@ConditionalOnProperty(name = "todo.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private static final String EVENTS_PATH = "/todos/events";
+    private static final String FORWARDED_FOR = "X-Forwarded-For";
+
+    private final TokenBuckets buckets;
+    private final ClientKeys clients;
+    private final AdaptiveConcurrencyLimit concurrency;
+    private final ObjectMapper objectMapper;
+    private final String clientHeader;
+    private final Counter rateLimited;
+    private final Counter shed;
+
+    public AdmissionFilter(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${todo.admission.client-header:X-Owner-Id}") String clientHeader,
+            @Value("${todo.admission.max-clients:100000}") int maxClients,
+            @Value("${todo.admission.max-clients-per-address:64}") int maxClientsPerAddress,
+            @Value("${todo.admission.trusted-proxies:}") Set<String> trustedProxies,
+            @Value("${todo.admission.standard.rate:100}") double standardRate,
+            @Value("${todo.admission.standard.burst:200}") int standardBurst,
+            @Value("${todo.admission.expensive.rate:2}") double expensiveRate,
+            @Value("${todo.admission.expensive.burst:10}") int expensiveBurst,
+            @Value("${todo.admission.concurrency.initial-limit:20}") int initialLimit,
+            @Value("${todo.admission.concurrency.min-limit:4}") int minLimit,
+            @Value("${todo.admission.concurrency.max-limit:200}") int maxLimit,
+            @Value("${todo.admission.concurrency.latency-target:PT0.5S}") Duration latencyTarget) {
+        this.buckets = new TokenBuckets(Map.of(
+                RequestCost.STANDARD, new TokenBuckets.Limit(standardRate, standardBurst),
+                RequestCost.EXPENSIVE, new TokenBuckets.Limit(expensiveRate, expensiveBurst)),
+                maxClients);
+        this.clients = new ClientKeys(trustedProxies, maxClients, maxClientsPerAddress, buckets.idle());
+        this.concurrency = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, latencyTarget.toNanos());
+        this.objectMapper = objectMapper;
+        this.clientHeader = clientHeader;
+        this.rateLimited = Counter.builder("todo.admission.rejected")
+                .description("Requests rejected before reaching a handler")
+                .tag("reason", "rate")
+                .register(meterRegistry);
+        this.shed = Counter.builder("todo.admission.rejected")
+                .description("Requests rejected before reaching a handler")
+                .tag("reason", "concurrency")
+                .register(meterRegistry);
+        Gauge.builder("todo.admission.limit", concurrency, AdaptiveConcurrencyLimit::limit)
+                .description("Current adaptive limit on requests in flight")
+                .register(meterRegistry);
+        Gauge.builder("todo.admission.in-flight", concurrency, AdaptiveConcurrencyLimit::inFlight)
+                .description("Requests in flight under the adaptive limit")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = path(request);
+        return !(path.equals("/todos") || path.startsWith("/todos/"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = path(request);
+        long start = System.nanoTime();
+
+        RequestCost cost = RequestCost.of(request, path);
+        long wait = buckets.tryAcquire(client(request), cost, start);
+        if (wait > 0) {
+            rateLimited.increment();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, TimeUnit.NANOSECONDS.toSeconds(wait) + 1,
+                    "Rate limit exceeded, retry later");
+            return;
+        }
+        if (path.equals(EVENTS_PATH)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!concurrency.tryAcquire()) {
+            shed.increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1, "Server is busy, retry later");
+            return;
+        }
+
+        boolean released = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                /* Streaming responses hold their slot until done; their duration says nothing about load. */
+                request.getAsyncContext().addListener(new ReleasingListener());
+                released = true;
+            }
+        } finally {
+            if (released) {
+                // released by the listener
+            } else if (cost == RequestCost.EXPENSIVE && response.getStatus() != HttpStatus.SERVICE_UNAVAILABLE.value()) {
+                /* Slow by nature; timing them would only drag the limit down for everyone. */
+                concurrency.release();
+            } else {
+                concurrency.release(
+                        System.nanoTime() - start,
+                        response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value());
+            }
+        }
+    }
+
+    private String client(HttpServletRequest request) {
+        return clients.of(request.getRemoteAddr(), request.getHeader(clientHeader), request.getHeader(FORWARDED_FOR));
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ApiErrorResponse(message));
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private final class ReleasingListener implements AsyncListener {
+
+        private boolean done;
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private synchronized void release() {
+            if (!done) {
+                done = true;
+                concurrency.release();
+            }
+        }
+    }
+}
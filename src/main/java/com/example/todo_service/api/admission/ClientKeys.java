@@ -0,0 +1,67 @@
+package com.example.todo_service.api.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Rate-limit keys, by how far the request can be trusted.
+ *
+ * A request from one of the trusted proxies carries an owner header that
+ * the proxy has authenticated, so the owner alone is the key: every owner
+ * behind the proxy gets its own bucket. Without the header it is keyed on
+ * the client address the proxy appended to X-Forwarded-For.
+ *
+ * Anyone else chooses the header themselves. Keyed on it alone, a client
+ * could spend someone else's budget or mint a fresh one per request, so
+ * the key is the remote address plus the header, and at most
+ * maxPerAddress header values are remembered per address. Values seen
+ * after that share the address's own bucket. Addresses idle for longer
+ * than idle are forgotten.
+ */
+public class ClientKeys {
+
+    private final Set<String> trustedProxies;
+    private final Cache<String, Set<String>> identities;
+    private final int maxPerAddress;
+
+    public ClientKeys(Set<String> trustedProxies, int maxAddresses, int maxPerAddress, Duration idle) {
+        if (maxPerAddress < 1) {
+            throw new IllegalArgumentException("Clients per address must be positive");
+        }
+        this.trustedProxies = Set.copyOf(trustedProxies);
+        this.identities = Caffeine.newBuilder()
+                .maximumSize(maxAddresses)
+                .expireAfterAccess(idle)
+                .build();
+        this.maxPerAddress = maxPerAddress;
+    }
+
+    public String of(String address, String identity, String forwardedFor) {
+        boolean hasIdentity = identity != null && !identity.isBlank();
+        if (trustedProxies.contains(address)) {
+            return hasIdentity ? "owner " + identity : forwardedClient(address, forwardedFor);
+        }
+        if (!hasIdentity) {
+            return address;
+        }
+        Set<String> seen = identities.get(address, key -> ConcurrentHashMap.newKeySet());
+        /* The size check races with other adds; the bound may be overshot by the number of concurrent requests. */
+        if (seen.contains(identity) || (seen.size() < maxPerAddress && seen.add(identity))) {
+            return address + " " + identity;
+        }
+        return address;
+    }
+
+    /* The last entry is the one the trusted proxy appended; earlier ones are the client's to choose. */
+    private static String forwardedClient(String address, String forwardedFor) {
+        if (forwardedFor == null || forwardedFor.isBlank()) {
+            return address;
+        }
+        String client = forwardedFor.substring(forwardedFor.lastIndexOf(',') + 1).trim();
+        return client.isEmpty() ? address : client;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.todo_service.api.admission;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/*
+ * Cost class of a request for rate limiting. Each class has its own token
+ * bucket per client, so a client spending its budget on full listings and
+ * exports keeps its budget for ordinary reads and writes.
+ */
+public enum RequestCost {
+
+    STANDARD,
+    /* Reads every row of an owner, or writes many rows at once. */
+    EXPENSIVE;
+
+    static RequestCost of(HttpServletRequest request, String path) {
+        if (path.startsWith("/todos/batch") || path.equals("/todos/export")) {
+            return EXPENSIVE;
+        }
+        if (path.equals("/todos")
+                && "GET".equals(request.getMethod())
+                && request.getParameter("limit") == null
+                && Boolean.parseBoolean(request.getParameter("includeDone"))) {
+            return EXPENSIVE;
+        }
+        return STANDARD;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.todo_service.api.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * One token bucket per client and cost class, kept as a single
+ * "theoretical arrival time" (GCRA): a request is admitted unless the
+ * schedule has run more than burst - 1 intervals ahead of now, and
+ * admitting it moves the schedule one interval on. The whole bucket is one AtomicLong
+ * updated with CAS, so admitting takes no lock; the bucket map is a
+ * concurrent hash map. Buckets idle for longer than it takes them to refill
+ * are dropped, and their number is capped.
+ */
+public class TokenBuckets {
+
+    public record Limit(double ratePerSecond, int burst) {
+
+        public Limit {
+            if (ratePerSecond <= 0 || burst < 1) {
+                throw new IllegalArgumentException("Rate limit and burst must be positive");
+            }
+        }
+
+        long intervalNanos() {
+            return (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        }
+    }
+
+    private record Key(String client, RequestCost cost) {
+    }
+
+    private final Map<RequestCost, Limit> limits;
+    private final Cache<Key, AtomicLong> buckets;
+    private final Duration idle;
+
+    public TokenBuckets(Map<RequestCost, Limit> limits, int maxClients) {
+        this.limits = new EnumMap<>(limits);
+        Duration refill = limits.values().stream()
+                .map(limit -> Duration.ofNanos(limit.intervalNanos() * limit.burst()))
+                .max(Duration::compareTo)
+                .orElseThrow();
+        this.idle = refill.plusSeconds(1);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(idle)
+                .build();
+    }
+
+    /* How long an unused bucket is kept; by then it would be full again anyway. */
+    public Duration idle() {
+        return idle;
+    }
+
+    /* 0 when admitted, otherwise the nanos until the next token is due. */
+    public long tryAcquire(String client, RequestCost cost, long nowNanos) {
+        Limit limit = limits.get(cost);
+        long interval = limit.intervalNanos();
+        long tolerance = interval * (limit.burst() - 1);
+        AtomicLong arrival = buckets.get(new Key(client, cost), key -> new AtomicLong(nowNanos));
+        while (true) {
+            long current = arrival.get();
+            long scheduled = Math.max(current, nowNanos);
+            long wait = scheduled - nowNanos - tolerance;
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrival.compareAndSet(current, scheduled + interval)) {
+                return 0;
+            }
+        }
+    }
+}
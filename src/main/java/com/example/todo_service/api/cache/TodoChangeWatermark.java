@@ -0,0 +1,31 @@
+package com.example.todo_service.api.cache;
+
+import com.example.todo_service.service.event.TodoOwnerChanges;
+import org.springframework.stereotype.Component;
+
+/*
+ * Owner-level change marker for listing ETags: the owner's change counter
+ * from the database (see TodoOwnerChanges). Every committed write to the
+ * owner's items moves it, on whichever instance it was made, and a tag
+ * handed out by one instance is valid on all of them. It is read from
+ * memory, so a 304 runs no query; writes made elsewhere move it at the
+ * next counter refresh. CBOR bodies get their own tag, suffixed -cbor.
+ */
+@Component
+public class TodoChangeWatermark {
+
+    private final TodoOwnerChanges changes;
+
+    public TodoChangeWatermark(TodoOwnerChanges changes) {
+        this.changes = changes;
+    }
+
+    /*
+     * Must be read before the listing query runs: a write that commits in
+     * between then only makes the tag older than the body, which costs a
+     * refetch but never hides a change.
+     */
+    public String etag(String ownerId, boolean cbor) {
+        return "\"" + changes.known(ownerId) + (cbor ? "-cbor" : "") + "\"";
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.todo_service.api.cache;
+
+import com.example.todo_service.api.dto.TodoResponse;
+import com.example.todo_service.service.TodoService;
+import com.example.todo_service.service.event.TodoChangedEvent;
+import com.example.todo_service.service.event.TodoOwnerChanges;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ * The default listing (NOT_DONE items of one owner) kept per owner as
+ * ready-to-send JSON, plain and gzipped, with a content-hash ETag. Reads
+ * that hit a snapshot touch neither the database nor Jackson.
+ *
+ * An owner's snapshot is dropped once a write to any of its items has
+ * committed and rebuilt on the next read. Builds go through the cache's
+ * atomic get, so a drop waits for an in-flight build of the same owner and
+ * a build that read the old rows cannot survive it. Writes made by other
+ * instances are caught by the owner's change counter: a snapshot keeps the
+ * counter read before its rows and is rebuilt once the counter has moved.
+ * The counter comes from TodoOwnerChanges.known(), which is in memory, so
+ * a hit runs no query; another instance's write shows once the counters
+ * are next refreshed (todo.owner-changes.refresh-interval). Memory is
+ * bounded by the total size of the held bodies.
+ */
+@Component
+public class TodoListingSnapshots {
+
+    /* The gzipped body is a different representation and gets its own ETag. */
+    public record Snapshot(String hash, byte[] json, byte[] gzip, long changes) {
+
+        public String etag(boolean gzipped) {
+            return "\"" + hash + (gzipped ? "-gzip" : "") + "\"";
+        }
+
+        public byte[] body(boolean gzipped) {
+            return gzipped ? gzip : json;
+        }
+    }
+
+    private final TodoService service;
+    private final TodoOwnerChanges ownerChanges;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, Snapshot> snapshots;
+
+    public TodoListingSnapshots(
+            TodoService service,
+            TodoOwnerChanges ownerChanges,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${todo.listing.snapshot-cache-size:64MB}") DataSize maxSize,
+            @Value("${todo.listing.snapshot-ttl:PT10M}") Duration ttl) {
+        this.service = service;
+        this.ownerChanges = ownerChanges;
+        this.objectMapper = objectMapper;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String owner, Snapshot snapshot) -> snapshot.json().length + snapshot.gzip().length)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots, "todo-listings");
+    }
+
+    public Snapshot notDone(String ownerId) {
+        long changes = ownerChanges.known(ownerId);
+        Snapshot snapshot = snapshots.get(ownerId, owner -> build(owner, changes));
+        if (snapshot.changes() == changes) {
+            return snapshot;
+        }
+        return snapshots.asMap().compute(ownerId, (owner, held) ->
+                held != null && held.changes() == changes ? held : build(owner, changes));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        snapshots.invalidateAll(event.owners());
+    }
+
+    /* changes must be read before the rows. */
+    private Snapshot build(String ownerId, long changes) {
+        List<TodoResponse> items = service.getNotDone(ownerId).stream()
+                .map(TodoResponse::from)
+                .toList();
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(items);
+            return new Snapshot(DigestUtils.md5DigestAsHex(json), json, gzip(json), changes);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize listing of " + ownerId, e);
+        }
+    }
+
+    /* Fastest level: rebuilds sit on the read path, and listings compress well anyway. */
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(64, json.length / 4));
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes) {
+            {
+                def.setLevel(Deflater.BEST_SPEED);
+            }
+        }) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
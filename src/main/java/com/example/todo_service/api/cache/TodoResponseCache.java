@@ -0,0 +1,80 @@
+package com.example.todo_service.api.cache;
+
+import com.example.todo_service.api.dto.TodoResponse;
+import com.example.todo_service.service.TodoService;
+import com.example.todo_service.service.event.TodoChangedEvent;
+import com.example.todo_service.service.event.TodoOwnerChanges;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Objects;
+
+/*
+ * Read-through cache of immutable TodoResponse snapshots keyed by id.
+ * Size and TTL come from spring.cache.caffeine.spec. Entries are evicted
+ * once the writing transaction has committed; sync loading makes an
+ * eviction wait for an in-flight load of the same id, so a load that read
+ * the old row cannot survive the eviction.
+ *
+ * Writes made by other instances are caught by the owner's change counter:
+ * each entry keeps the counter read before its row, and a hit for the
+ * item's owner is reloaded once the counter has moved. A hit for anyone
+ * else is answered as not found by the caller whatever its age. Counters
+ * are read from memory (TodoOwnerChanges.known), so a hit runs no query;
+ * another instance's write shows once the counters are next refreshed.
+ */
+@Component
+public class TodoResponseCache {
+
+    public static final String CACHE_NAME = "todos";
+
+    /* changes is the counter of ownerId, the owner the entry was loaded for. */
+    private record Entry(TodoResponse response, String ownerId, long changes) {
+
+        boolean isCurrent(String ownerId, long changes) {
+            return !response.getOwnerId().equals(ownerId)
+                    || (this.ownerId.equals(ownerId) && this.changes == changes);
+        }
+    }
+
+    private final TodoService service;
+    private final TodoOwnerChanges ownerChanges;
+    private final Cache cache;
+
+    public TodoResponseCache(TodoService service, TodoOwnerChanges ownerChanges, CacheManager cacheManager) {
+        this.service = service;
+        this.ownerChanges = ownerChanges;
+        this.cache = Objects.requireNonNull(
+                cacheManager.getCache(CACHE_NAME),
+                "Cache not configured: " + CACHE_NAME);
+    }
+
+    public TodoResponse get(String ownerId, Long id) {
+        long changes = ownerChanges.known(ownerId);
+        Entry entry;
+        try {
+            entry = cache.get(id, () -> load(id, ownerId, changes));
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        if (!entry.isCurrent(ownerId, changes)) {
+            entry = load(id, ownerId, changes);
+            cache.put(id, entry);
+        }
+        return entry.response();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        event.ids().forEach(cache::evict);
+    }
+
+    private Entry load(Long id, String ownerId, long changes) {
+        return new Entry(TodoResponse.from(service.getViewById(id)), ownerId, changes);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.todo_service.api.dto;
+
+import com.example.todo_service.service.batch.BatchItemOutcome;
+import com.example.todo_service.service.batch.BatchItemResult;
+
+public class BatchItemResponse {
+
+    private int index;
+    private Long id;
+    private BatchItemOutcome outcome;
+    private String error;
+    private TodoResponse todo;
+
+    public static BatchItemResponse from(BatchItemResult result) {
+        BatchItemResponse response = new BatchItemResponse();
+        response.index = result.index();
+        response.id = result.id();
+        response.outcome = result.outcome();
+        response.error = result.error();
+        response.todo = result.item() == null
+                ? null
+                : TodoResponse.from(result.item());
+        return response;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public BatchItemOutcome getOutcome() {
+        return outcome;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public TodoResponse getTodo() {
+        return todo;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.todo_service.api.dto;
+
+import com.example.todo_service.service.batch.BatchItemResult;
+
+import java.util.List;
+
+public class BatchResponse {
+
+    private int succeeded;
+    private int failed;
+    private List<BatchItemResponse> results;
+
+    public static BatchResponse from(List<BatchItemResult> results) {
+        BatchResponse response = new BatchResponse();
+        response.results = results.stream()
+                .map(BatchItemResponse::from)
+                .toList();
+        response.succeeded = (int) results.stream()
+                .filter(result -> result.outcome().isSuccess())
+                .count();
+        response.failed = results.size() - response.succeeded;
+        return response;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<BatchItemResponse> getResults() {
+        return results;
+    }
+}
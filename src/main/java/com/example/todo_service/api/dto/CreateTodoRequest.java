@@ -4,9 +4,14 @@ import java.time.OffsetDateTime;
 
 public class CreateTodoRequest {
 
+    private String ownerId;
     private String description;
     private OffsetDateTime dueAt;
 
+    public void setOwnerId(String ownerId) {
+        this.ownerId = ownerId;
+    }
+
     public void setDescription(String description) {
         this.description = description;
     }
@@ -15,6 +20,10 @@ public class CreateTodoRequest {
         this.dueAt = dueAt;
     }
 
+    public String getOwnerId() {
+        return ownerId;
+    }
+
     public String getDescription() {
         return description;
     }
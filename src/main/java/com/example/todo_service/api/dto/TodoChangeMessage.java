@@ -0,0 +1,26 @@
+package com.example.todo_service.api.dto;
+
+import com.example.todo_service.service.event.TodoChangeType;
+
+import java.util.List;
+
+public class TodoChangeMessage {
+
+    private TodoChangeType type;
+    private List<Long> ids;
+
+    public static TodoChangeMessage of(TodoChangeType type, List<Long> ids) {
+        TodoChangeMessage message = new TodoChangeMessage();
+        message.type = type;
+        message.ids = ids;
+        return message;
+    }
+
+    public TodoChangeType getType() {
+        return type;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+}
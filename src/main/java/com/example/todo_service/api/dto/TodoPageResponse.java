@@ -0,0 +1,30 @@
+package com.example.todo_service.api.dto;
+
+import com.example.todo_service.service.query.TodoPage;
+
+import java.util.List;
+
+public class TodoPageResponse {
+
+    private List<TodoResponse> items;
+    private String nextCursor;
+
+    public static TodoPageResponse from(TodoPage page) {
+        TodoPageResponse response = new TodoPageResponse();
+        response.items = page.items().stream()
+                .map(TodoResponse::from)
+                .toList();
+        response.nextCursor = page.hasNext()
+                ? page.next().encode()
+                : null;
+        return response;
+    }
+
+    public List<TodoResponse> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -2,26 +2,44 @@ package com.example.todo_service.api.dto;
 
 import com.example.todo_service.domain.TodoItem;
 import com.example.todo_service.domain.TodoStatus;
+import com.example.todo_service.repository.TodoView;
 
 import java.time.OffsetDateTime;
 
 public class TodoResponse {
 
     private Long id;
+    private String ownerId;
     private String description;
     private TodoStatus status;
     private OffsetDateTime createdAt;
     private OffsetDateTime dueAt;
     private OffsetDateTime doneAt;
+    private long version;
 
     public static TodoResponse from(TodoItem item) {
         TodoResponse response = new TodoResponse();
         response.id = item.getId();
+        response.ownerId = item.getOwnerId();
         response.description = item.getDescription();
         response.status = item.getStatus();
         response.createdAt = item.getCreatedAt();
         response.dueAt = item.getDueAt();
         response.doneAt = item.getDoneAt();
+        response.version = item.getVersion();
+        return response;
+    }
+
+    public static TodoResponse from(TodoView view) {
+        TodoResponse response = new TodoResponse();
+        response.id = view.id();
+        response.ownerId = view.ownerId();
+        response.description = view.description();
+        response.status = view.status();
+        response.createdAt = view.createdAt();
+        response.dueAt = view.dueAt();
+        response.doneAt = view.doneAt();
+        response.version = view.version();
         return response;
     }
 
@@ -29,6 +47,10 @@ public class TodoResponse {
         return id;
     }
 
+    public String getOwnerId() {
+        return ownerId;
+    }
+
     public String getDescription() {
         return description;
     }
@@ -48,4 +70,8 @@ public class TodoResponse {
     public OffsetDateTime getDoneAt() {
         return doneAt;
     }
+
+    public long getVersion() {
+        return version;
+    }
 }
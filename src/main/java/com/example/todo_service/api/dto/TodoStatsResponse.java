@@ -0,0 +1,58 @@
+package com.example.todo_service.api.dto;
+
+import com.example.todo_service.domain.TodoStatus;
+import com.example.todo_service.service.stats.DueWindow;
+import com.example.todo_service.service.stats.TodoStats;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+public class TodoStatsResponse {
+
+    private long total;
+    private Map<TodoStatus, Long> byStatus;
+    private Map<DueWindow, Long> openByDueWindow;
+    private CompletionTime completionTime;
+    private OffsetDateTime reconciledAt;
+
+    public static TodoStatsResponse from(TodoStats stats) {
+        TodoStatsResponse response = new TodoStatsResponse();
+        response.total = stats.byStatus().values().stream()
+                .mapToLong(Long::longValue)
+                .sum();
+        response.byStatus = stats.byStatus();
+        response.openByDueWindow = stats.openByDueWindow();
+        response.completionTime = new CompletionTime(
+                stats.completed(),
+                stats.completionP50(),
+                stats.completionP90(),
+                stats.completionP99());
+        response.reconciledAt = stats.reconciledAt();
+        return response;
+    }
+
+    /* Time from creation to done, over items that are currently DONE. */
+    public record CompletionTime(long count, Duration p50, Duration p90, Duration p99) {
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public Map<TodoStatus, Long> getByStatus() {
+        return byStatus;
+    }
+
+    public Map<DueWindow, Long> getOpenByDueWindow() {
+        return openByDueWindow;
+    }
+
+    public CompletionTime getCompletionTime() {
+        return completionTime;
+    }
+
+    public OffsetDateTime getReconciledAt() {
+        return reconciledAt;
+    }
+}
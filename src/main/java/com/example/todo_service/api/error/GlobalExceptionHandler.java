@@ -1,9 +1,15 @@
 package com.example.todo_service.api.error;
 
+import com.example.todo_service.api.stream.TooManySubscribersException;
 import com.example.todo_service.service.exception.InvalidTodoStateException;
 import com.example.todo_service.service.exception.TodoNotFoundException;
+import com.example.todo_service.service.exception.TodoVersionMismatchException;
+import com.example.todo_service.service.search.SearchIndexLoadingException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
@@ -24,6 +30,42 @@ public class GlobalExceptionHandler {
                 .body(new ApiErrorResponse(ex.getMessage()));
     }
 
+    @ExceptionHandler(TodoVersionMismatchException.class)
+    public ResponseEntity<ApiErrorResponse> handleVersionMismatch(TodoVersionMismatchException ex) {
+        return ResponseEntity
+                .status(HttpStatus.PRECONDITION_FAILED)
+                .body(new ApiErrorResponse(ex.getMessage()));
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ApiErrorResponse> handleConcurrentUpdate(ObjectOptimisticLockingFailureException ex) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(new ApiErrorResponse("Todo item was modified concurrently, retry with the latest version"));
+    }
+
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<ApiErrorResponse> handleDatabaseUnavailable(CannotCreateTransactionException ex) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ApiErrorResponse("Database is busy, retry later"));
+    }
+
+    @ExceptionHandler(TooManySubscribersException.class)
+    public ResponseEntity<ApiErrorResponse> handleTooManySubscribers(TooManySubscribersException ex) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ApiErrorResponse(ex.getMessage()));
+    }
+
+    @ExceptionHandler(SearchIndexLoadingException.class)
+    public ResponseEntity<ApiErrorResponse> handleSearchIndexLoading(SearchIndexLoadingException ex) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ApiErrorResponse(ex.getMessage()));
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ApiErrorResponse> handleBadRequest(IllegalArgumentException ex) {
         return ResponseEntity
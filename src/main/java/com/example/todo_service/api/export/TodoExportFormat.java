@@ -0,0 +1,105 @@
+package com.example.todo_service.api.export;
+
+import com.example.todo_service.api.dto.TodoResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+
+public enum TodoExportFormat {
+
+    NDJSON("ndjson", MediaType.parseMediaType("application/x-ndjson")) {
+        @Override
+        public RowWriter open(Writer out, ObjectMapper objectMapper) throws IOException {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            ObjectWriter writer = objectMapper.writerFor(TodoResponse.class);
+            return row -> {
+                writer.writeValue(generator, row);
+                generator.writeRaw('\n');
+            };
+        }
+    },
+
+    CSV("csv", MediaType.parseMediaType("text/csv")) {
+        @Override
+        public RowWriter open(Writer out, ObjectMapper objectMapper) throws IOException {
+            out.write("id,description,status,createdAt,dueAt,doneAt\n");
+            return row -> {
+                out.write(String.valueOf(row.getId()));
+                out.write(',');
+                out.write(escape(row.getDescription()));
+                out.write(',');
+                out.write(row.getStatus().name());
+                out.write(',');
+                out.write(timestamp(row.getCreatedAt()));
+                out.write(',');
+                out.write(timestamp(row.getDueAt()));
+                out.write(',');
+                out.write(timestamp(row.getDoneAt()));
+                out.write('\n');
+            };
+        }
+    };
+
+    private final String param;
+    private final MediaType mediaType;
+
+    TodoExportFormat(String param, MediaType mediaType) {
+        this.param = param;
+        this.mediaType = mediaType;
+    }
+
+    public abstract RowWriter open(Writer out, ObjectMapper objectMapper) throws IOException;
+
+    public String param() {
+        return param;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    public static TodoExportFormat fromParam(String param) {
+        return Arrays.stream(values())
+                .filter(format -> format.param.equals(param))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported export format: " + param));
+    }
+
+    @FunctionalInterface
+    public interface RowWriter {
+
+        void write(TodoResponse row) throws IOException;
+
+        default void writeUnchecked(TodoResponse row) {
+            try {
+                write(row);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static String timestamp(OffsetDateTime value) {
+        return value == null ? "" : value.toString();
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.todo_service.api.stream;
+
+import com.example.todo_service.api.dto.TodoChangeMessage;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * One open stream, seeing the changes of one owner. Changes wait in a
+ * bounded buffer until the next flush; a subscriber that falls further
+ * behind than the buffer allows loses the backlog and is sent a single
+ * "reset" instead, telling it to refetch. At most one flush per
+ * subscriber runs at a time, so a slow client only ever holds up itself.
+ */
+final class StreamSubscriber {
+
+    static final String READY = "ready";
+    static final String RESET = "reset";
+    static final String CHANGE = "change";
+
+    private final String ownerId;
+    private final SseEmitter emitter;
+    private final int capacity;
+
+    /* guarded by this */
+    private final ArrayDeque<StreamedChange> pending = new ArrayDeque<>();
+    private String control;
+    private long controlSeq;
+
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    private volatile long lastSentNanos = System.nanoTime();
+
+    StreamSubscriber(String ownerId, SseEmitter emitter, int capacity) {
+        this.ownerId = ownerId;
+        this.emitter = emitter;
+        this.capacity = capacity;
+    }
+
+    String ownerId() {
+        return ownerId;
+    }
+
+    synchronized void control(String name, long seq) {
+        pending.clear();
+        control = name;
+        controlSeq = seq;
+    }
+
+    /*
+     * Returns false when the buffer overflowed and the subscriber was reset.
+     */
+    synchronized boolean offer(StreamedChange change) {
+        if (pending.size() == capacity) {
+            control(RESET, change.seq());
+            return false;
+        }
+        pending.addLast(change);
+        return true;
+    }
+
+    synchronized boolean hasPending() {
+        return control != null || !pending.isEmpty();
+    }
+
+    long lastSentNanos() {
+        return lastSentNanos;
+    }
+
+    boolean tryStartFlush() {
+        return flushing.compareAndSet(false, true);
+    }
+
+    void endFlush() {
+        flushing.set(false);
+    }
+
+    /*
+     * Sends everything pending, or a keep-alive comment when there is
+     * nothing to send. Consecutive changes of the same type are coalesced
+     * into one message carrying the id of the last one, so a sweep that
+     * flips thousands of rows in chunks arrives as a single event.
+     */
+    void flush(String epoch) throws IOException {
+        List<SseEmitter.SseEventBuilder> events = drain(epoch);
+        if (events.isEmpty()) {
+            emitter.send(SseEmitter.event().comment("keep-alive"));
+        }
+        for (SseEmitter.SseEventBuilder event : events) {
+            emitter.send(event);
+        }
+        lastSentNanos = System.nanoTime();
+    }
+
+    void complete() {
+        emitter.complete();
+    }
+
+    void completeWithError(Throwable error) {
+        emitter.completeWithError(error);
+    }
+
+    private synchronized List<SseEmitter.SseEventBuilder> drain(String epoch) {
+        List<SseEmitter.SseEventBuilder> events = new ArrayList<>();
+        if (control != null) {
+            events.add(SseEmitter.event()
+                    .id(eventId(epoch, controlSeq))
+                    .name(control)
+                    .data(Map.of(), MediaType.APPLICATION_JSON));
+            control = null;
+        }
+        while (!pending.isEmpty()) {
+            StreamedChange first = pending.removeFirst();
+            Set<Long> ids = new LinkedHashSet<>(first.ids());
+            long lastSeq = first.seq();
+            while (!pending.isEmpty() && pending.peekFirst().type() == first.type()) {
+                StreamedChange next = pending.removeFirst();
+                ids.addAll(next.ids());
+                lastSeq = next.seq();
+            }
+            events.add(SseEmitter.event()
+                    .id(eventId(epoch, lastSeq))
+                    .name(CHANGE)
+                    .data(TodoChangeMessage.of(first.type(), List.copyOf(ids)), MediaType.APPLICATION_JSON));
+        }
+        return events;
+    }
+
+    static String eventId(String epoch, long seq) {
+        return epoch + "-" + seq;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.todo_service.api.stream;
+
+import com.example.todo_service.service.event.TodoChangeType;
+
+import java.util.List;
+
+/*
+ * The items of one owner in one committed TodoChangedEvent. Events are
+ * numbered in publication order; an event touching several owners yields
+ * one StreamedChange per owner, all with the event's number.
+ */
+record StreamedChange(long seq, String ownerId, TodoChangeType type, List<Long> ids) {
+}
@@ -0,0 +1,223 @@
+package com.example.todo_service.api.stream;
+
+import com.example.todo_service.service.event.TodoChange;
+import com.example.todo_service.service.event.TodoChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+
+/*
+ * Fan-out of committed todo changes to Server-Sent Events subscribers.
+ * Every subscriber belongs to one owner and only sees that owner's items.
+ *
+ * Every TodoChangedEvent gets the next sequence number and is split by
+ * owner; each part is appended to a bounded replay log and to the buffers
+ * of that owner's subscribers. Nothing is sent on the writing thread. A
+ * tick every flush-interval hands subscribers with pending changes to the
+ * task executor, which coalesces whatever arrived since the last tick
+ * into as few messages as possible.
+ *
+ * Event ids are "<epoch>-<seq>", so an owner's ids have gaps where other
+ * owners' changes went. A client reconnecting with Last-Event-ID gets its
+ * owner's missed changes replayed when they are still in the log, and a
+ * "reset" when they are not (or the id comes from another instance or an
+ * earlier run).
+ */
+@Component
+public class TodoChangeStream {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoChangeStream.class);
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Object lock = new Object();
+    /* guarded by lock */
+    private final ArrayDeque<StreamedChange> replay = new ArrayDeque<>();
+    private long lastSeq;
+
+    private final Set<StreamSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Map<String, Set<StreamSubscriber>> subscribersByOwner = new ConcurrentHashMap<>();
+
+    private final TaskScheduler scheduler;
+    private final TaskExecutor sender;
+    private final int replaySize;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final Duration flushInterval;
+    private final long heartbeatNanos;
+    private final Duration timeout;
+    private final Counter resets;
+    private ScheduledFuture<?> ticker;
+
+    public TodoChangeStream(
+            TaskScheduler scheduler,
+            @Qualifier("applicationTaskExecutor") TaskExecutor sender,
+            MeterRegistry meterRegistry,
+            @Value("${todo.events.replay-size:1024}") int replaySize,
+            @Value("${todo.events.buffer-size:256}") int bufferSize,
+            @Value("${todo.events.max-subscribers:1000}") int maxSubscribers,
+            @Value("${todo.events.flush-interval:PT0.1S}") Duration flushInterval,
+            @Value("${todo.events.heartbeat-interval:PT15S}") Duration heartbeatInterval,
+            @Value("${todo.events.timeout:PT30M}") Duration timeout) {
+        if (bufferSize < 1 || replaySize < 1) {
+            throw new IllegalArgumentException("Change stream buffer and replay sizes must be positive");
+        }
+        this.scheduler = scheduler;
+        this.sender = sender;
+        this.replaySize = replaySize;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.flushInterval = flushInterval;
+        this.heartbeatNanos = heartbeatInterval.toNanos();
+        this.timeout = timeout;
+        this.resets = Counter.builder("todo.events.resets")
+                .description("Subscribers reset because they fell behind or could not resume")
+                .register(meterRegistry);
+        Gauge.builder("todo.events.subscribers", subscribers, Set::size)
+                .description("Open change-stream subscriptions")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void startTicker() {
+        ticker = scheduler.scheduleAtFixedRate(this::tick, flushInterval);
+    }
+
+    /*
+     * Closes every stream so clients reconnect, with their Last-Event-ID,
+     * to an instance that is still running.
+     */
+    @PreDestroy
+    void stop() {
+        ticker.cancel(false);
+        subscribers.forEach(StreamSubscriber::complete);
+        subscribers.clear();
+        subscribersByOwner.clear();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        Map<String, List<Long>> idsByOwner = new LinkedHashMap<>();
+        for (TodoChange change : event.changes()) {
+            idsByOwner.computeIfAbsent(change.after().ownerId(), owner -> new ArrayList<>()).add(change.id());
+        }
+        synchronized (lock) {
+            long seq = ++lastSeq;
+            idsByOwner.forEach((ownerId, ids) -> {
+                StreamedChange change = new StreamedChange(seq, ownerId, event.type(), ids);
+                replay.addLast(change);
+                if (replay.size() > replaySize) {
+                    replay.removeFirst();
+                }
+                for (StreamSubscriber subscriber : subscribersByOwner.getOrDefault(ownerId, Set.of())) {
+                    if (!subscriber.offer(change)) {
+                        resets.increment();
+                    }
+                }
+            });
+        }
+    }
+
+    public SseEmitter subscribe(String ownerId, String lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new TooManySubscribersException(maxSubscribers);
+        }
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        StreamSubscriber subscriber = new StreamSubscriber(ownerId, emitter, bufferSize);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+
+        synchronized (lock) {
+            if (lastEventId == null || lastEventId.isBlank()) {
+                subscriber.control(StreamSubscriber.READY, lastSeq);
+            } else if (!replayAfter(lastEventId, subscriber)) {
+                subscriber.control(StreamSubscriber.RESET, lastSeq);
+                resets.increment();
+            }
+            subscribers.add(subscriber);
+            subscribersByOwner.computeIfAbsent(ownerId, owner -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+        return emitter;
+    }
+
+    private void remove(StreamSubscriber subscriber) {
+        subscribers.remove(subscriber);
+        subscribersByOwner.computeIfPresent(subscriber.ownerId(), (owner, owned) -> {
+            owned.remove(subscriber);
+            return owned.isEmpty() ? null : owned;
+        });
+    }
+
+    /* Must hold lock. */
+    private boolean replayAfter(String lastEventId, StreamSubscriber subscriber) {
+        String prefix = epoch + "-";
+        if (!lastEventId.startsWith(prefix)) {
+            return false;
+        }
+        long seq;
+        try {
+            seq = Long.parseLong(lastEventId.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        long oldestKept = replay.isEmpty() ? lastSeq + 1 : replay.peekFirst().seq();
+        if (seq > lastSeq || seq < oldestKept - 1) {
+            return false;
+        }
+        for (StreamedChange change : replay) {
+            if (change.seq() > seq && change.ownerId().equals(subscriber.ownerId()) && !subscriber.offer(change)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void tick() {
+        long now = System.nanoTime();
+        for (StreamSubscriber subscriber : subscribers) {
+            boolean due = subscriber.hasPending() || now - subscriber.lastSentNanos() >= heartbeatNanos;
+            if (due && subscriber.tryStartFlush()) {
+                try {
+                    sender.execute(() -> flush(subscriber));
+                } catch (TaskRejectedException e) {
+                    subscriber.endFlush();
+                }
+            }
+        }
+    }
+
+    private void flush(StreamSubscriber subscriber) {
+        try {
+            subscriber.flush(epoch);
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping change-stream subscriber: {}", e.getMessage());
+            remove(subscriber);
+            subscriber.completeWithError(e);
+        } finally {
+            subscriber.endFlush();
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.todo_service.api.stream;
+
+public class TooManySubscribersException extends RuntimeException {
+
+    public TooManySubscribersException(int limit) {
+        super("Change stream is at its limit of " + limit + " subscribers, retry later");
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.todo_service.config;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+
+/*
+ * application/cbor next to JSON for service-to-service clients that pull
+ * large listings. Timestamps go out as epoch millis and enums as ordinals,
+ * so the format is only as stable as the order of the enum constants:
+ * append new ones, never reorder. Requests are read with the same
+ * conventions; ISO strings and enum names are still accepted.
+ */
+@Configuration(proxyBeanMethods = false)
+public class CborConfiguration {
+
+    /* Replaces the converter Spring MVC would register with default settings. */
+    @Bean
+    MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+        return new MappingJackson2CborHttpMessageConverter(cborMapper());
+    }
+
+    public static CBORMapper cborMapper() {
+        return CBORMapper.builder()
+                .addModule(new JavaTimeModule())
+                .enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(SerializationFeature.WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS)
+                .enable(SerializationFeature.WRITE_ENUMS_USING_INDEX)
+                .disable(DeserializationFeature.READ_DATE_TIMESTAMPS_AS_NANOSECONDS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+    }
+}
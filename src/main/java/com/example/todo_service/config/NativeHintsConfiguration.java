@@ -0,0 +1,65 @@
+package com.example.todo_service.config;
+
+import com.example.todo_service.api.dto.BatchItemResponse;
+import com.example.todo_service.api.dto.BatchResponse;
+import com.example.todo_service.api.dto.CreateTodoRequest;
+import com.example.todo_service.api.dto.TodoChangeMessage;
+import com.example.todo_service.api.dto.TodoPageResponse;
+import com.example.todo_service.api.dto.TodoResponse;
+import com.example.todo_service.api.dto.TodoStatsResponse;
+import com.example.todo_service.api.dto.UpdateDescriptionRequest;
+import com.example.todo_service.api.error.ApiErrorResponse;
+import com.example.todo_service.domain.ArchivedTodoItem;
+import com.example.todo_service.domain.PastDueSweepLease;
+import com.example.todo_service.domain.TodoItem;
+import com.example.todo_service.repository.TodoDeadline;
+import com.example.todo_service.repository.TodoView;
+import org.springframework.aop.SpringProxy;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.DecoratingProxy;
+import org.springframework.data.projection.TargetAware;
+
+/*
+ * Reflection the native image cannot discover on its own (see the native
+ * profile in pom.xml). Spring AOT covers controller signatures and the
+ * Spring Data repositories; this adds the DTOs that are serialized outside
+ * a controller return value (listing snapshots, export, SSE, the admission
+ * filter's error body), the JPQL constructor expression behind TodoView,
+ * and the entities Hibernate populates through field access.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeHintsConfiguration.TodoRuntimeHints.class)
+@RegisterReflectionForBinding({
+        TodoResponse.class,
+        TodoPageResponse.class,
+        TodoChangeMessage.class,
+        TodoStatsResponse.class,
+        TodoStatsResponse.CompletionTime.class,
+        BatchResponse.class,
+        BatchItemResponse.class,
+        CreateTodoRequest.class,
+        UpdateDescriptionRequest.class,
+        ApiErrorResponse.class
+})
+public class NativeHintsConfiguration {
+
+    static class TodoRuntimeHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            hints.reflection().registerType(TodoView.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            for (Class<?> entity : new Class<?>[] { TodoItem.class, ArchivedTodoItem.class, PastDueSweepLease.class }) {
+                hints.reflection().registerType(entity,
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_DECLARED_METHODS,
+                        MemberCategory.DECLARED_FIELDS);
+            }
+            hints.proxies().registerJdkProxy(TodoDeadline.class, TargetAware.class, SpringProxy.class, DecoratingProxy.class);
+        }
+    }
+}
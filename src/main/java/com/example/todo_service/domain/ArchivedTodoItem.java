@@ -0,0 +1,90 @@
+package com.example.todo_service.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.Immutable;
+
+import java.time.OffsetDateTime;
+
+/*
+ * A TodoItem moved to todo_items_archive by the archiver. Rows are only
+ * ever written by the set-based move in ArchivedTodoItemRepository and
+ * mostly read through TodoView projections; paginated listings load the
+ * entity through the same specifications as TodoItem.
+ */
+@Entity
+@Immutable
+@Table(name = "todo_items_archive")
+public class ArchivedTodoItem {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String ownerId;
+
+    @Column(nullable = false, length = 255)
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TodoStatus status;
+
+    @Column(nullable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(nullable = false)
+    private OffsetDateTime dueAt;
+
+    private OffsetDateTime doneAt;
+
+    @Column(nullable = false)
+    private long version;
+
+    @Column(nullable = false)
+    private OffsetDateTime archivedAt;
+
+    protected ArchivedTodoItem() {
+        // for JPA
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getOwnerId() {
+        return ownerId;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public TodoStatus getStatus() {
+        return status;
+    }
+
+    public OffsetDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public OffsetDateTime getDueAt() {
+        return dueAt;
+    }
+
+    public OffsetDateTime getDoneAt() {
+        return doneAt;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public OffsetDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
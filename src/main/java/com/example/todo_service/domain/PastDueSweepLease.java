@@ -0,0 +1,43 @@
+package com.example.todo_service.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.OffsetDateTime;
+
+/*
+ * Claim on one past-due sweep shard. Rows are created by the V6 migration
+ * and only ever changed through the guarded updates in
+ * PastDueSweepLeaseRepository.
+ */
+@Entity
+@Table(name = "past_due_sweep_leases")
+public class PastDueSweepLease {
+
+    @Id
+    private Integer shard;
+
+    @Column(length = 128)
+    private String holder;
+
+    @Column(nullable = false)
+    private OffsetDateTime leasedUntil;
+
+    protected PastDueSweepLease() {
+        // for JPA
+    }
+
+    public Integer getShard() {
+        return shard;
+    }
+
+    public String getHolder() {
+        return holder;
+    }
+
+    public OffsetDateTime getLeasedUntil() {
+        return leasedUntil;
+    }
+}
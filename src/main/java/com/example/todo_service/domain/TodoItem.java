@@ -9,10 +9,23 @@ import java.util.Objects;
 @Table(name = "todo_items")
 public class TodoItem {
 
+    public static final String DEFAULT_OWNER = "default";
+
+    /* Number of past-due sweep shards; matches MOD(id, 64) in V6. */
+    public static final int SWEEP_SHARDS = 64;
+
+    /*
+     * Pooled sequence instead of IDENTITY: ids are handed out from memory in
+     * blocks of 50, so Hibernate can group inserts into JDBC batches.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "todo_items_seq")
+    @SequenceGenerator(name = "todo_items_seq", sequenceName = "todo_items_seq", allocationSize = 50)
     private Long id;
 
+    @Column(nullable = false, updatable = false, length = 64)
+    private String ownerId;
+
     @Column(nullable = false, length = 255)
     private String description;
 
@@ -28,11 +41,24 @@ public class TodoItem {
 
     private OffsetDateTime doneAt;
 
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    /* Computed by the database from the id; only used in sweep queries. */
+    @Column(insertable = false, updatable = false)
+    private int sweepShard;
+
     protected TodoItem() {
         // for JPA
     }
 
     public TodoItem(String description, OffsetDateTime dueAt) {
+        this(DEFAULT_OWNER, description, dueAt);
+    }
+
+    public TodoItem(String ownerId, String description, OffsetDateTime dueAt) {
+        this.ownerId = ownerId;
         this.description = description;
         this.dueAt = dueAt;
         this.status = TodoStatus.NOT_DONE;
@@ -70,12 +96,20 @@ public class TodoItem {
         }
     }
 
+    public TodoSnapshot snapshot() {
+        return new TodoSnapshot(id, ownerId, description, status, createdAt, dueAt, doneAt);
+    }
+
     /* ===== Getters ===== */
 
     public Long getId() {
         return id;
     }
 
+    public String getOwnerId() {
+        return ownerId;
+    }
+
     public String getDescription() {
         return description;
     }
@@ -96,6 +130,10 @@ public class TodoItem {
         return doneAt;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     /* ===== Equality ===== */
 
     @Override
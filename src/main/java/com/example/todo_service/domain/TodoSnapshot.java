@@ -0,0 +1,21 @@
+package com.example.todo_service.domain;
+
+import java.time.OffsetDateTime;
+
+/*
+ * Immutable copy of a TodoItem's state, safe to hand to other threads.
+ */
+public record TodoSnapshot(
+        Long id,
+        String ownerId,
+        String description,
+        TodoStatus status,
+        OffsetDateTime createdAt,
+        OffsetDateTime dueAt,
+        OffsetDateTime doneAt
+) {
+
+    public TodoSnapshot withStatus(TodoStatus newStatus) {
+        return new TodoSnapshot(id, ownerId, description, newStatus, createdAt, dueAt, doneAt);
+    }
+}
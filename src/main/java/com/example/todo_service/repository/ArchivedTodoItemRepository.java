@@ -0,0 +1,80 @@
+package com.example.todo_service.repository;
+
+import com.example.todo_service.domain.ArchivedTodoItem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/*
+ * Reads mirror the TodoView projections of TodoItemRepository, so callers
+ * can put archived rows next to hot ones.
+ */
+public interface ArchivedTodoItemRepository extends JpaRepository<ArchivedTodoItem, Long> {
+
+    String SELECT_VIEW = """
+            select new com.example.todo_service.repository.TodoView(
+                a.id, a.ownerId, a.description, a.status, a.createdAt, a.dueAt, a.doneAt, a.version)
+            from ArchivedTodoItem a
+            """;
+
+    @Query(SELECT_VIEW + "where a.id = :id")
+    Optional<TodoView> findViewById(@Param("id") Long id);
+
+    @Query(SELECT_VIEW + "where a.ownerId = :ownerId order by a.id")
+    List<TodoView> findViewsByOwner(@Param("ownerId") String ownerId);
+
+    @Query(SELECT_VIEW + "where a.id in :ids")
+    List<TodoView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(SELECT_VIEW + "where a.id > :afterId and a.id <= :toId order by a.id")
+    List<TodoView> findViewsInIdRange(
+            @Param("afterId") long afterId,
+            @Param("toId") long toId,
+            Limit limit
+    );
+
+    @Query("select coalesce(max(a.id), 0) from ArchivedTodoItem a")
+    long findMaxId();
+
+    /*
+     * Copies the given todo_items rows. Runs in the caller's transaction,
+     * which has locked the rows and deletes them afterwards.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO todo_items_archive
+                (id, owner_id, description, status, created_at, due_at, done_at, version, archived_at)
+            SELECT id, owner_id, description, status, created_at, due_at, done_at, version, :archivedAt
+            FROM todo_items
+            WHERE id IN (:ids)
+            """)
+    int copyFromTodoItems(
+            @Param("ids") Collection<Long> ids,
+            @Param("archivedAt") OffsetDateTime archivedAt
+    );
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = TodoItemRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query(SELECT_VIEW + "where a.ownerId = :ownerId order by a.id")
+    Stream<TodoView> streamViewsByOwner(@Param("ownerId") String ownerId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = TodoItemRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query(SELECT_VIEW)
+    Stream<TodoView> streamAllViews();
+}
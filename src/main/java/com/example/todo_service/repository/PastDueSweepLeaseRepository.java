@@ -0,0 +1,50 @@
+package com.example.todo_service.repository;
+
+import com.example.todo_service.domain.PastDueSweepLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+
+/*
+ * Every method is a single guarded UPDATE in its own transaction, so the
+ * database decides which instance wins a shard; each returns the number
+ * of rows changed (0 or 1).
+ */
+public interface PastDueSweepLeaseRepository extends JpaRepository<PastDueSweepLease, Integer> {
+
+    /* Takes the shard if its lease has expired, whoever held it. */
+    @Transactional
+    @Modifying
+    @Query("""
+            update PastDueSweepLease l
+            set l.holder = :holder,
+                l.leasedUntil = :until
+            where l.shard = :shard
+              and l.leasedUntil <= :now
+            """)
+    int claim(
+            @Param("shard") int shard,
+            @Param("holder") String holder,
+            @Param("now") OffsetDateTime now,
+            @Param("until") OffsetDateTime until
+    );
+
+    /* Moves the end of a lease this holder still owns, to extend or release it. */
+    @Transactional
+    @Modifying
+    @Query("""
+            update PastDueSweepLease l
+            set l.leasedUntil = :until
+            where l.shard = :shard
+              and l.holder = :holder
+            """)
+    int extend(
+            @Param("shard") int shard,
+            @Param("holder") String holder,
+            @Param("until") OffsetDateTime until
+    );
+}
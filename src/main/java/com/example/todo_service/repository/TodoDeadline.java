@@ -0,0 +1,13 @@
+package com.example.todo_service.repository;
+
+import java.time.OffsetDateTime;
+
+/*
+ * Projection of an open item's deadline.
+ */
+public interface TodoDeadline {
+
+    Long getId();
+
+    OffsetDateTime getDueAt();
+}
@@ -2,17 +2,184 @@ package com.example.todo_service.repository;
 
 import com.example.todo_service.domain.TodoItem;
 import com.example.todo_service.domain.TodoStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface TodoItemRepository extends JpaRepository<TodoItem, Long> {
 
-    List<TodoItem> findByStatus(TodoStatus status);
+    String EXPORT_FETCH_SIZE = "500";
 
-    List<TodoItem> findByStatusAndDueAtBefore(
-            TodoStatus status,
-            OffsetDateTime dateTime
+    String SELECT_VIEW = """
+            select new com.example.todo_service.repository.TodoView(
+                t.id, t.ownerId, t.description, t.status, t.createdAt, t.dueAt, t.doneAt, t.version)
+            from TodoItem t
+            """;
+
+    List<TodoItem> findByOwnerIdAndStatus(String ownerId, TodoStatus status);
+
+    /*
+     * Projections for the read endpoints; see TodoView. Listings are scoped
+     * to one owner and ordered by id, so they are range scans of the
+     * owner's slice of (owner_id, ...) indexes.
+     */
+    @Query(SELECT_VIEW + "where t.id = :id")
+    Optional<TodoView> findViewById(@Param("id") Long id);
+
+    @Query(SELECT_VIEW + "where t.ownerId = :ownerId order by t.id")
+    List<TodoView> findViewsByOwner(@Param("ownerId") String ownerId);
+
+    @Query(SELECT_VIEW + "where t.ownerId = :ownerId and t.status = :status order by t.id")
+    List<TodoView> findViewsByOwnerAndStatus(
+            @Param("ownerId") String ownerId,
+            @Param("status") TodoStatus status
+    );
+
+    @Query(SELECT_VIEW + "where t.id in :ids")
+    List<TodoView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /*
+     * Keyset chunk of the id range (afterId, toId], for loading in-memory
+     * indexes in parallel ranges.
+     */
+    @Query(SELECT_VIEW + "where t.id > :afterId and t.id <= :toId order by t.id")
+    List<TodoView> findViewsInIdRange(
+            @Param("afterId") long afterId,
+            @Param("toId") long toId,
+            Limit limit
+    );
+
+    @Query("select coalesce(max(t.id), 0) from TodoItem t")
+    long findMaxId();
+
+    /*
+     * Next chunk of one sweep shard, oldest deadline first. The sweep flips
+     * every chunk before asking for the next, so flipped rows drop out and
+     * no keyset is needed. Rows come back as projections, never entities,
+     * so the persistence context stays empty; the sweep publishes them as
+     * the "before" state of each change.
+     */
+    @Query(SELECT_VIEW + """
+            where t.sweepShard = :shard
+              and t.status = :status
+              and t.dueAt < :cutoff
+            order by t.dueAt
+            """)
+    List<TodoView> findViewsBySweepShardAndStatusAndDueAtBefore(
+            @Param("shard") int shard,
+            @Param("status") TodoStatus status,
+            @Param("cutoff") OffsetDateTime cutoff,
+            Limit limit
+    );
+
+    @Query(SELECT_VIEW + "where t.id in :ids and t.status = :status")
+    List<TodoView> findViewsByIdInAndStatus(
+            @Param("ids") Collection<Long> ids,
+            @Param("status") TodoStatus status
     );
+
+    @Query("select t.id from TodoItem t where t.id in :ids and t.status = :status")
+    List<Long> findIdsByIdInAndStatus(
+            @Param("ids") Collection<Long> ids,
+            @Param("status") TodoStatus status
+    );
+
+    /*
+     * Deadlines due before the given instant, for the in-memory deadline
+     * index. Only (id, dueAt) pairs are read.
+     */
+    @Query("""
+            select t.id as id, t.dueAt as dueAt from TodoItem t
+            where t.status = :status
+              and t.dueAt < :until
+            """)
+    List<TodoDeadline> findDeadlines(
+            @Param("status") TodoStatus status,
+            @Param("until") OffsetDateTime until
+    );
+
+    /*
+     * Set-based status change for one chunk of ids. The status guard keeps
+     * rows that changed since the id scan untouched, and the version bump
+     * keeps ETags and optimistic locking honest. Runs in its own
+     * transaction so every chunk commits independently.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update TodoItem t
+            set t.status = :newStatus,
+                t.version = t.version + 1
+            where t.id in :ids
+              and t.status = :expectedStatus
+            """)
+    int updateStatusByIds(
+            @Param("ids") Collection<Long> ids,
+            @Param("expectedStatus") TodoStatus expectedStatus,
+            @Param("newStatus") TodoStatus newStatus
+    );
+
+    /*
+     * Next batch for the archiver: DONE items completed, and PAST_DUE items
+     * due, before the cutoff. The rows stay locked until the archiving
+     * transaction ends, so no writer can change one between its copy to
+     * the archive and its delete.
+     */
+    @Query(nativeQuery = true, value = """
+            SELECT id FROM todo_items
+            WHERE status = 'DONE' AND done_at < :cutoff
+            LIMIT :limit
+            FOR UPDATE
+            """)
+    List<Long> lockDoneBefore(@Param("cutoff") OffsetDateTime cutoff, @Param("limit") int limit);
+
+    @Query(nativeQuery = true, value = """
+            SELECT id FROM todo_items
+            WHERE status = 'PAST_DUE' AND due_at < :cutoff
+            LIMIT :limit
+            FOR UPDATE
+            """)
+    List<Long> lockPastDueBefore(@Param("cutoff") OffsetDateTime cutoff, @Param("limit") int limit);
+
+    /*
+     * Forward-only, read-only cursors for exports and full scans. Must be
+     * consumed inside a transaction and closed by the caller.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select t from TodoItem t where t.ownerId = :ownerId order by t.id")
+    Stream<TodoItem> streamByOwner(@Param("ownerId") String ownerId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select t from TodoItem t where t.ownerId = :ownerId and t.status = :status order by t.id")
+    Stream<TodoItem> streamByOwnerAndStatus(
+            @Param("ownerId") String ownerId,
+            @Param("status") TodoStatus status
+    );
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query(SELECT_VIEW)
+    Stream<TodoView> streamAllViews();
 }
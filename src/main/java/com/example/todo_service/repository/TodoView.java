@@ -0,0 +1,40 @@
+package com.example.todo_service.repository;
+
+import com.example.todo_service.domain.TodoItem;
+import com.example.todo_service.domain.TodoSnapshot;
+import com.example.todo_service.domain.TodoStatus;
+
+import java.time.OffsetDateTime;
+
+/*
+ * Read-only row of todo_items, built by a JPQL constructor expression. It is
+ * never attached to the persistence context, so reads skip entity
+ * hydration, snapshots and dirty checking.
+ */
+public record TodoView(
+        Long id,
+        String ownerId,
+        String description,
+        TodoStatus status,
+        OffsetDateTime createdAt,
+        OffsetDateTime dueAt,
+        OffsetDateTime doneAt,
+        long version
+) {
+
+    public static TodoView of(TodoItem item) {
+        return new TodoView(
+                item.getId(),
+                item.getOwnerId(),
+                item.getDescription(),
+                item.getStatus(),
+                item.getCreatedAt(),
+                item.getDueAt(),
+                item.getDoneAt(),
+                item.getVersion());
+    }
+
+    public TodoSnapshot snapshot() {
+        return new TodoSnapshot(id, ownerId, description, status, createdAt, dueAt, doneAt);
+    }
+}
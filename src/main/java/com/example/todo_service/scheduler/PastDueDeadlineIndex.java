@@ -0,0 +1,212 @@
+package com.example.todo_service.scheduler;
+
+import com.example.todo_service.domain.TodoSnapshot;
+import com.example.todo_service.domain.TodoStatus;
+import com.example.todo_service.repository.TodoDeadline;
+import com.example.todo_service.repository.TodoItemRepository;
+import com.example.todo_service.service.TodoService;
+import com.example.todo_service.service.event.TodoChange;
+import com.example.todo_service.service.event.TodoChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ScheduledFuture;
+
+/*
+ * Upcoming deadlines of NOT_DONE items, ordered by due time, with a single
+ * timer armed for the earliest one. Items flip to PAST_DUE when they fall due
+ * instead of on the next poll.
+ *
+ * Only deadlines inside the horizon are held, so memory is bounded by the
+ * items due soon rather than by the table. The periodic sweep reloads the
+ * window and remains the safety net for anything the index misses.
+ */
+@Component
+@ConditionalOnProperty(name = "todo.deadlines.enabled", havingValue = "true", matchIfMissing = true)
+public class PastDueDeadlineIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PastDueDeadlineIndex.class);
+
+    private record Deadline(long dueAt, long id) implements Comparable<Deadline> {
+
+        @Override
+        public int compareTo(Deadline other) {
+            int byDueAt = Long.compare(dueAt, other.dueAt);
+            return byDueAt != 0 ? byDueAt : Long.compare(id, other.id);
+        }
+    }
+
+    private final NavigableSet<Deadline> queue = new ConcurrentSkipListSet<>();
+    private final Map<Long, Deadline> byId = new ConcurrentHashMap<>();
+
+    private final TodoService todoService;
+    private final TodoItemRepository repository;
+    private final TaskScheduler scheduler;
+    private final Duration horizon;
+    private final Counter flippedRows;
+
+    /* Deadlines at or after this instant (epoch millis) are left to the next reload. */
+    private volatile long horizonEnd = Long.MIN_VALUE;
+
+    private final Object timerLock = new Object();
+    private ScheduledFuture<?> timer;
+    private long timerAt = Long.MAX_VALUE;
+
+    public PastDueDeadlineIndex(
+            TodoService todoService,
+            TodoItemRepository repository,
+            TaskScheduler scheduler,
+            @Value("${todo.deadlines.horizon:PT15M}") Duration horizon,
+            @Value("${todo.past-due.sweep-interval:PT1M}") Duration sweepInterval,
+            MeterRegistry meterRegistry) {
+        if (horizon.compareTo(sweepInterval) <= 0) {
+            throw new IllegalArgumentException(
+                    "Deadline horizon must be longer than the past-due sweep interval");
+        }
+        this.todoService = todoService;
+        this.repository = repository;
+        this.scheduler = scheduler;
+        this.horizon = horizon;
+        this.flippedRows = Counter.builder("todo.past-due.rows")
+                .description("Todo items marked as past due")
+                .tag("trigger", "deadline")
+                .register(meterRegistry);
+        Gauge.builder("todo.deadlines.pending", byId, Map::size)
+                .description("Deadlines held by the in-memory deadline index")
+                .register(meterRegistry);
+    }
+
+    /*
+     * Loads every open deadline inside the next horizon. The window is
+     * widened before the query so that items created meanwhile are indexed
+     * by their events rather than dropped.
+     */
+    public void reload() {
+        long until = System.currentTimeMillis() + horizon.toMillis();
+        horizonEnd = until;
+        List<TodoDeadline> deadlines = repository.findDeadlines(
+                TodoStatus.NOT_DONE,
+                OffsetDateTime.ofInstant(Instant.ofEpochMilli(until), ZoneOffset.UTC));
+        for (TodoDeadline deadline : deadlines) {
+            add(deadline.getId(), deadline.getDueAt());
+        }
+        armTimer();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        for (TodoChange change : event.changes()) {
+            TodoSnapshot after = change.after();
+            if (after.status() == TodoStatus.NOT_DONE) {
+                add(after.id(), after.dueAt());
+            } else {
+                remove(change.id());
+            }
+        }
+        armTimer();
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    @PreDestroy
+    void cancelTimer() {
+        synchronized (timerLock) {
+            if (timer != null) {
+                timer.cancel(false);
+                timer = null;
+            }
+        }
+    }
+
+    private void add(long id, OffsetDateTime dueAt) {
+        long dueAtMillis = dueAt.toInstant().toEpochMilli();
+        if (dueAtMillis >= horizonEnd) {
+            return;
+        }
+        Deadline deadline = new Deadline(dueAtMillis, id);
+        Deadline previous = byId.put(id, deadline);
+        if (previous != null && !previous.equals(deadline)) {
+            queue.remove(previous);
+        }
+        queue.add(deadline);
+    }
+
+    private void remove(long id) {
+        Deadline deadline = byId.remove(id);
+        if (deadline != null) {
+            queue.remove(deadline);
+        }
+    }
+
+    /*
+     * Keeps exactly one timer, set for the earliest deadline. A timer that is
+     * already due sooner is left alone.
+     */
+    private void armTimer() {
+        Iterator<Deadline> head = queue.iterator();
+        if (!head.hasNext()) {
+            return;
+        }
+        Deadline first = head.next();
+        synchronized (timerLock) {
+            if (timer != null && timerAt <= first.dueAt()) {
+                return;
+            }
+            if (timer != null) {
+                timer.cancel(false);
+            }
+            timerAt = first.dueAt();
+            timer = scheduler.schedule(this::fireDue, Instant.ofEpochMilli(first.dueAt()));
+        }
+    }
+
+    private void fireDue() {
+        synchronized (timerLock) {
+            timer = null;
+            timerAt = Long.MAX_VALUE;
+        }
+        List<Long> due = new ArrayList<>();
+        Iterator<Deadline> it = queue.headSet(new Deadline(System.currentTimeMillis(), Long.MAX_VALUE), true)
+                .iterator();
+        while (it.hasNext()) {
+            Deadline deadline = it.next();
+            it.remove();
+            byId.remove(deadline.id(), deadline);
+            due.add(deadline.id());
+        }
+        try {
+            if (!due.isEmpty()) {
+                int updated = todoService.markPastDue(due);
+                flippedRows.increment(updated);
+                log.debug("Deadline index marked {} of {} due item(s) as past due", updated, due.size());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Deadline index failed to mark {} item(s) as past due; leaving them to the sweep",
+                    due.size(), e);
+        } finally {
+            armTimer();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.todo_service.scheduler;
+
+import com.example.todo_service.repository.PastDueSweepLeaseRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+/*
+ * Leases on past-due sweep shards, shared by every instance through the
+ * past_due_sweep_leases table. A claim lasts leaseTtl and is renewed after
+ * every chunk, so the shards of an instance that dies mid-sweep are picked
+ * up by another one within leaseTtl. Instances compare their own clocks
+ * against the stored lease ends; leaseTtl must stay well above any clock
+ * skew between them.
+ */
+@Component
+public class PastDueShardLeases {
+
+    private final PastDueSweepLeaseRepository repository;
+    private final String holder;
+    private final Duration leaseTtl;
+
+    public PastDueShardLeases(
+            PastDueSweepLeaseRepository repository,
+            @Value("${todo.past-due.instance-id:${random.uuid}}") String holder,
+            @Value("${todo.past-due.lease-ttl:PT2M}") Duration leaseTtl) {
+        if (holder.length() > 128) {
+            throw new IllegalArgumentException("Past-due instance id must be at most 128 characters");
+        }
+        this.repository = repository;
+        this.holder = holder;
+        this.leaseTtl = leaseTtl;
+    }
+
+    public String holder() {
+        return holder;
+    }
+
+    public boolean tryClaim(int shard, OffsetDateTime now) {
+        return repository.claim(shard, holder, now, now.plus(leaseTtl)) == 1;
+    }
+
+    /* False when the lease was lost, i.e. another instance has taken the shard over. */
+    public boolean renew(int shard) {
+        return repository.extend(shard, holder, OffsetDateTime.now().plus(leaseTtl)) == 1;
+    }
+
+    /*
+     * Keeps the shard until the given instant, so that other instances
+     * running their own sweep meanwhile skip it. Pass "now" to hand it back
+     * straight away.
+     */
+    public void release(int shard, OffsetDateTime until) {
+        repository.extend(shard, holder, until);
+    }
+}
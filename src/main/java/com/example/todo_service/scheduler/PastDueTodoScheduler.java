@@ -1,23 +1,144 @@
 package com.example.todo_service.scheduler;
 
+import com.example.todo_service.domain.TodoItem;
+import com.example.todo_service.service.PastDueSweepResult;
 import com.example.todo_service.service.TodoService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @Component
 public class PastDueTodoScheduler {
 
+    private static final Logger log = LoggerFactory.getLogger(PastDueTodoScheduler.class);
+
     private final TodoService todoService;
+    private final PastDueShardLeases leases;
+    private final ObjectProvider<PastDueDeadlineIndex> deadlineIndex;
+    private final TaskExecutor executor;
+    private final int parallelism;
+    private final Duration holdAfterSweep;
+    private final Timer sweepTimer;
+    private final Counter sweptRows;
+    private final Counter skippedShards;
 
-    public PastDueTodoScheduler(TodoService todoService) {
+    public PastDueTodoScheduler(
+            TodoService todoService,
+            PastDueShardLeases leases,
+            ObjectProvider<PastDueDeadlineIndex> deadlineIndex,
+            @Qualifier("applicationTaskExecutor") TaskExecutor executor,
+            @Value("${todo.past-due.parallelism:0}") int parallelism,
+            @Value("${todo.past-due.sweep-interval:PT1M}") Duration sweepInterval,
+            MeterRegistry meterRegistry) {
         this.todoService = todoService;
+        this.leases = leases;
+        this.deadlineIndex = deadlineIndex;
+        this.executor = executor;
+        this.parallelism = Math.min(
+                parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+                TodoItem.SWEEP_SHARDS);
+        this.holdAfterSweep = sweepInterval.dividedBy(2);
+        this.sweepTimer = Timer.builder("todo.past-due.sweep")
+                .description("Duration of the bulk past-due sweep")
+                .register(meterRegistry);
+        this.sweptRows = Counter.builder("todo.past-due.rows")
+                .description("Todo items marked as past due")
+                .tag("trigger", "sweep")
+                .register(meterRegistry);
+        this.skippedShards = Counter.builder("todo.past-due.shards.skipped")
+                .description("Sweep shards left alone because another instance held them")
+                .register(meterRegistry);
     }
 
     /*
-     * Runs every minute.
+     * With the deadline index enabled this is a slow reconciliation: it
+     * catches anything the index missed and reloads the index window. The
+     * first run, at startup, builds the index.
+     *
+     * The sweep is split into TodoItem.SWEEP_SHARDS shards by id. Up to
+     * `parallelism` workers take shards off a queue, starting at a random
+     * shard so that instances starting together do not contend for the same
+     * ones. A shard is only swept after its lease has been claimed; a swept
+     * shard stays leased for half the sweep interval, so every instance
+     * running a sweep meanwhile skips it and replicas split the work
+     * instead of repeating it. A failing shard is handed back at once.
      */
-    @Scheduled(fixedRate = 60_000)
+    @Scheduled(fixedRateString = "${todo.past-due.sweep-interval:PT1M}")
     public void markPastDueTodos() {
-        todoService.markPastDueItems();
+        long start = System.nanoTime();
+        OffsetDateTime cutoff = OffsetDateTime.now();
+        Queue<Integer> shards = new ConcurrentLinkedQueue<>();
+        int first = ThreadLocalRandom.current().nextInt(TodoItem.SWEEP_SHARDS);
+        for (int i = 0; i < TodoItem.SWEEP_SHARDS; i++) {
+            shards.add((first + i) % TodoItem.SWEEP_SHARDS);
+        }
+        AtomicInteger updated = new AtomicInteger();
+        AtomicInteger chunks = new AtomicInteger();
+        AtomicInteger swept = new AtomicInteger();
+
+        List<CompletableFuture<Void>> workers = new ArrayList<>();
+        for (int i = 0; i < parallelism; i++) {
+            workers.add(CompletableFuture.runAsync(() -> {
+                Integer shard;
+                while ((shard = shards.poll()) != null) {
+                    if (!leases.tryClaim(shard, OffsetDateTime.now())) {
+                        skippedShards.increment();
+                        continue;
+                    }
+                    OffsetDateTime releaseAt = OffsetDateTime.now();
+                    try {
+                        int claimed = shard;
+                        PastDueSweepResult result = todoService.markPastDueItems(
+                                shard, cutoff, () -> leases.renew(claimed));
+                        updated.addAndGet(result.updatedRows());
+                        chunks.addAndGet(result.chunks());
+                        swept.incrementAndGet();
+                        releaseAt = releaseAt.plus(holdAfterSweep);
+                    } catch (RuntimeException e) {
+                        log.warn("Past-due sweep failed for shard {}; handing it back", shard, e);
+                    } finally {
+                        leases.release(shard, releaseAt);
+                    }
+                }
+            }, executor));
+        }
+        CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new)).join();
+
+        PastDueSweepResult result = new PastDueSweepResult(
+                updated.get(),
+                chunks.get(),
+                Duration.ofNanos(System.nanoTime() - start));
+        sweepTimer.record(result.elapsed());
+        sweptRows.increment(result.updatedRows());
+        if (result.updatedRows() > 0) {
+            log.info("Marked {} todo items as past due in {} chunk(s) of {} shard(s), took {} ms",
+                    result.updatedRows(),
+                    result.chunks(),
+                    swept.get(),
+                    result.elapsed().toMillis());
+        } else {
+            log.debug("Past-due sweep found nothing to update in {} shard(s), took {} ms",
+                    swept.get(),
+                    result.elapsed().toMillis());
+        }
+        deadlineIndex.ifAvailable(PastDueDeadlineIndex::reload);
     }
 }
@@ -0,0 +1,110 @@
+package com.example.todo_service.scheduler;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+
+/*
+ * Maintenance of the file-backed H2 store (durable profile).
+ *
+ * CHECKPOINT SYNC runs periodically and fsyncs everything committed so far,
+ * so recovery after a crash only rolls back what was written since.
+ * MVStore is append-only and reclaims space from live churn on its own, but
+ * bulk writes leave most of the file stale; SHUTDOWN COMPACT on the way down
+ * rewrites it with only live pages. It runs in the last lifecycle phase,
+ * after the web server has stopped and before the connection pool is
+ * closed, and first shuts the task scheduler down (waiting for a running
+ * sweep) so that nothing races the compaction.
+ */
+@Component
+@ConditionalOnProperty(name = "todo.storage.path")
+public class StorageMaintenanceScheduler implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageMaintenanceScheduler.class);
+
+    private final JdbcTemplate jdbc;
+    private final ObjectProvider<ThreadPoolTaskScheduler> taskScheduler;
+    private final File storeFile;
+    private final boolean compactOnShutdown;
+    private final Timer checkpointTimer;
+    private volatile boolean running;
+
+    public StorageMaintenanceScheduler(
+            JdbcTemplate jdbc,
+            ObjectProvider<ThreadPoolTaskScheduler> taskScheduler,
+            MeterRegistry meterRegistry,
+            @Value("${todo.storage.path}") String storagePath,
+            @Value("${todo.storage.compact-on-shutdown:false}") boolean compactOnShutdown) {
+        this.jdbc = jdbc;
+        this.taskScheduler = taskScheduler;
+        this.storeFile = new File(storagePath + ".mv.db");
+        this.compactOnShutdown = compactOnShutdown;
+        this.checkpointTimer = Timer.builder("todo.storage.checkpoint")
+                .description("Duration of CHECKPOINT SYNC on the H2 store")
+                .register(meterRegistry);
+        Gauge.builder("todo.storage.file.size", storeFile, File::length)
+                .description("Size of the H2 database file")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(
+            initialDelayString = "${todo.storage.checkpoint-interval:PT1M}",
+            fixedDelayString = "${todo.storage.checkpoint-interval:PT1M}")
+    public void checkpoint() {
+        checkpointTimer.record(() -> jdbc.execute("CHECKPOINT SYNC"));
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (compactOnShutdown) {
+            taskScheduler.ifAvailable(ThreadPoolTaskScheduler::shutdown);
+            compact();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return Integer.MIN_VALUE;
+    }
+
+    private void compact() {
+        long before = storeFile.length();
+        long start = System.nanoTime();
+        try {
+            jdbc.execute("SHUTDOWN COMPACT");
+        } catch (DataAccessException e) {
+            log.warn("Skipped compaction of {}: {}", storeFile.getName(), e.getMessage());
+            return;
+        }
+        log.info("Compacted {} from {} MB to {} MB in {} ms",
+                storeFile.getName(),
+                before >> 20,
+                storeFile.length() >> 20,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+}
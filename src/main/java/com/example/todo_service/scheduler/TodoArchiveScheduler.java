@@ -0,0 +1,87 @@
+package com.example.todo_service.scheduler;
+
+import com.example.todo_service.service.archive.TodoArchiver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+@ConditionalOnProperty(name = "todo.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class TodoArchiveScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoArchiveScheduler.class);
+
+    private final TodoArchiver archiver;
+    private final Duration minAge;
+    private final Timer runTimer;
+    private final Counter archivedRows;
+    private final AtomicLong hotTableRows = new AtomicLong();
+    private final AtomicLong archiveTableRows = new AtomicLong();
+
+    public TodoArchiveScheduler(
+            TodoArchiver archiver,
+            @Value("${todo.archive.min-age:P30D}") Duration minAge,
+            MeterRegistry meterRegistry) {
+        this.archiver = archiver;
+        this.minAge = minAge;
+        this.runTimer = Timer.builder("todo.archive.run")
+                .description("Duration of moving finished todo items to the archive")
+                .register(meterRegistry);
+        this.archivedRows = Counter.builder("todo.archive.rows")
+                .description("Todo items moved to the archive")
+                .register(meterRegistry);
+        Gauge.builder("todo.archive.table.rows", hotTableRows, AtomicLong::get)
+                .description("Rows per table as of the last archive run")
+                .tag("table", "todo_items")
+                .register(meterRegistry);
+        Gauge.builder("todo.archive.table.rows", archiveTableRows, AtomicLong::get)
+                .description("Rows per table as of the last archive run")
+                .tag("table", "todo_items_archive")
+                .register(meterRegistry);
+    }
+
+    /*
+     * Runs at startup and then every interval, moving batches until one
+     * comes back empty. Each batch commits on its own, so a failure only
+     * loses the batch in progress; the next run picks up where this one
+     * stopped. The table sizes are counted after every run.
+     */
+    @Scheduled(fixedDelayString = "${todo.archive.interval:PT1H}")
+    public void archiveFinishedTodos() {
+        long start = System.nanoTime();
+        OffsetDateTime cutoff = OffsetDateTime.now().minus(minAge);
+        long moved = 0;
+        int batches = 0;
+        try {
+            int batch;
+            while ((batch = archiver.archiveBatch(cutoff)) > 0) {
+                moved += batch;
+                batches++;
+                archivedRows.increment(batch);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Archive run stopped after {} todo item(s); the rest is left for the next run", moved, e);
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        runTimer.record(elapsed);
+        if (moved > 0) {
+            log.info("Archived {} todo item(s) finished before {} in {} batch(es), took {} ms",
+                    moved, cutoff, batches, elapsed.toMillis());
+        } else {
+            log.debug("Archive run found nothing to move, took {} ms", elapsed.toMillis());
+        }
+        hotTableRows.set(archiver.hotRows());
+        archiveTableRows.set(archiver.archivedRows());
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.todo_service.scheduler;
+
+import com.example.todo_service.service.event.TodoOwnerChanges;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TodoOwnerChangesScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoOwnerChangesScheduler.class);
+
+    private final TodoOwnerChanges ownerChanges;
+
+    public TodoOwnerChangesScheduler(TodoOwnerChanges ownerChanges) {
+        this.ownerChanges = ownerChanges;
+    }
+
+    /*
+     * One query over the owner counters; the interval bounds how long the
+     * listing snapshots, the item cache and listing ETags miss another
+     * instance's writes.
+     */
+    @Scheduled(fixedDelayString = "${todo.owner-changes.refresh-interval:PT5S}",
+            initialDelayString = "${todo.owner-changes.refresh-interval:PT5S}")
+    public void refreshOwnerChanges() {
+        int moved = ownerChanges.refresh();
+        if (moved > 0) {
+            log.debug("Owner change counters moved elsewhere for {} owner(s)", moved);
+        }
+    }
+}
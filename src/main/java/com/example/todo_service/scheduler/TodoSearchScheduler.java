@@ -0,0 +1,32 @@
+package com.example.todo_service.scheduler;
+
+import com.example.todo_service.service.search.TodoSearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TodoSearchScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoSearchScheduler.class);
+
+    private final TodoSearchIndex searchIndex;
+
+    public TodoSearchScheduler(TodoSearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    /*
+     * One query over the owner counters when nothing changed elsewhere;
+     * the interval bounds how long search misses another instance's writes.
+     */
+    @Scheduled(fixedDelayString = "${todo.search.reconcile-interval:PT1M}",
+            initialDelayString = "${todo.search.reconcile-interval:PT1M}")
+    public void reconcileSearchIndex() {
+        long start = System.nanoTime();
+        int reloaded = searchIndex.reconcile();
+        log.debug("Reconciled search index in {} ms, reloaded {} owner(s)",
+                (System.nanoTime() - start) / 1_000_000, reloaded);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.todo_service.scheduler;
+
+import com.example.todo_service.service.stats.TodoStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TodoStatsScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoStatsScheduler.class);
+
+    private final TodoStatistics statistics;
+
+    public TodoStatsScheduler(TodoStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /*
+     * The first run, at startup, loads the statistics; later runs only
+     * correct drift, so the interval can be long.
+     */
+    @Scheduled(fixedDelayString = "${todo.stats.reconcile-interval:PT10M}")
+    public void reconcileStats() {
+        long start = System.nanoTime();
+        statistics.reconcile();
+        log.debug("Reconciled todo statistics in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+}
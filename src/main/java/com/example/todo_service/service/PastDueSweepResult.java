@@ -0,0 +1,6 @@
+package com.example.todo_service.service;
+
+import java.time.Duration;
+
+public record PastDueSweepResult(int updatedRows, int chunks, Duration elapsed) {
+}
@@ -0,0 +1,80 @@
+package com.example.todo_service.service;
+
+import com.example.todo_service.domain.TodoItem;
+import com.example.todo_service.domain.TodoStatus;
+import com.example.todo_service.repository.ArchivedTodoItemRepository;
+import com.example.todo_service.repository.TodoItemRepository;
+import com.example.todo_service.repository.TodoView;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Service
+public class TodoExportService {
+
+    private final TodoItemRepository repository;
+    private final ArchivedTodoItemRepository archive;
+    private final EntityManager entityManager;
+    private final int clearInterval;
+
+    public TodoExportService(
+            TodoItemRepository repository,
+            ArchivedTodoItemRepository archive,
+            EntityManager entityManager,
+            @Value("${todo.export.clear-interval:500}") int clearInterval) {
+        if (clearInterval < 1) {
+            throw new IllegalArgumentException("Export clear interval must be positive");
+        }
+        this.repository = repository;
+        this.archive = archive;
+        this.entityManager = entityManager;
+        this.clearInterval = clearInterval;
+    }
+
+    /*
+     * Hands every row to the sink while the cursor is open. The persistence
+     * context is cleared every clearInterval rows, so memory stays flat
+     * regardless of table size. Only the owner's rows are exported. With
+     * includeDone the owner's archived rows are merged in by id from a
+     * second cursor. Returns the number of exported rows.
+     */
+    @Transactional(readOnly = true)
+    public long export(String ownerId, boolean includeDone, Consumer<TodoView> sink) {
+        long count = 0;
+        long loaded = 0;
+        try (Stream<TodoItem> rows = includeDone
+                ? repository.streamByOwner(ownerId)
+                : repository.streamByOwnerAndStatus(ownerId, TodoStatus.NOT_DONE);
+             Stream<TodoView> archivedRows = includeDone
+                     ? archive.streamViewsByOwner(ownerId)
+                     : Stream.empty()) {
+            var iterator = rows.iterator();
+            Iterator<TodoView> archived = archivedRows.iterator();
+            TodoView nextArchived = archived.hasNext() ? archived.next() : null;
+            while (iterator.hasNext()) {
+                TodoItem item = iterator.next();
+                while (nextArchived != null && nextArchived.id() < item.getId()) {
+                    sink.accept(nextArchived);
+                    count++;
+                    nextArchived = archived.hasNext() ? archived.next() : null;
+                }
+                sink.accept(TodoView.of(item));
+                count++;
+                if (++loaded % clearInterval == 0) {
+                    entityManager.clear();
+                }
+            }
+            while (nextArchived != null) {
+                sink.accept(nextArchived);
+                count++;
+                nextArchived = archived.hasNext() ? archived.next() : null;
+            }
+        }
+        return count;
+    }
+}
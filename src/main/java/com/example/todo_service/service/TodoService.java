@@ -1,80 +1,395 @@
 package com.example.todo_service.service;
 
+import com.example.todo_service.domain.ArchivedTodoItem;
 import com.example.todo_service.domain.TodoItem;
+import com.example.todo_service.domain.TodoSnapshot;
 import com.example.todo_service.domain.TodoStatus;
+import com.example.todo_service.repository.ArchivedTodoItemRepository;
 import com.example.todo_service.repository.TodoItemRepository;
+import com.example.todo_service.repository.TodoView;
+import com.example.todo_service.service.event.TodoChange;
+import com.example.todo_service.service.event.TodoChangeType;
+import com.example.todo_service.service.event.TodoChangedEvent;
 import com.example.todo_service.service.exception.InvalidTodoStateException;
 import com.example.todo_service.service.exception.TodoNotFoundException;
+import com.example.todo_service.service.exception.TodoVersionMismatchException;
+import com.example.todo_service.service.query.TodoCursor;
+import com.example.todo_service.service.query.TodoPage;
+import com.example.todo_service.service.query.TodoPageQuery;
+import com.example.todo_service.service.query.TodoSpecifications;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
 
 @Service
 @Transactional
+@Observed(name = "todo.service")
 public class TodoService {
 
     private final TodoItemRepository repository;
+    private final ArchivedTodoItemRepository archive;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher events;
+    private final TransactionTemplate transactions;
+    private final int sweepChunkSize;
 
-    public TodoService(TodoItemRepository repository) {
+    public TodoService(
+            TodoItemRepository repository,
+            ArchivedTodoItemRepository archive,
+            EntityManager entityManager,
+            ApplicationEventPublisher events,
+            PlatformTransactionManager transactionManager,
+            @Value("${todo.past-due.chunk-size:1000}") int sweepChunkSize) {
+        if (sweepChunkSize < 1) {
+            throw new IllegalArgumentException("Sweep chunk size must be positive");
+        }
         this.repository = repository;
+        this.archive = archive;
+        this.entityManager = entityManager;
+        this.events = events;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.sweepChunkSize = sweepChunkSize;
     }
 
     public TodoItem addTodo(String description, OffsetDateTime dueAt) {
-        TodoItem item = new TodoItem(description, dueAt);
-        return repository.save(item);
+        return addTodo(TodoItem.DEFAULT_OWNER, description, dueAt);
+    }
+
+    public TodoItem addTodo(String ownerId, String description, OffsetDateTime dueAt) {
+        TodoItem item = repository.save(new TodoItem(ownerId, description, dueAt));
+        events.publishEvent(TodoChangedEvent.of(TodoChangeType.CREATED, TodoChange.of(null, item.snapshot())));
+        return item;
     }
 
+    /*
+     * The read endpoints use projections rather than entities; nothing they
+     * return is managed. Listings only ever see the caller's own items.
+     * Lookups by id and listings that include finished items also read the
+     * archive; the default listing never has to.
+     */
     @Transactional(readOnly = true)
-    public TodoItem getById(Long id) {
-        return repository.findById(id)
+    public TodoView getViewById(Long id) {
+        return repository.findViewById(id)
+                .or(() -> archive.findViewById(id))
                 .orElseThrow(() -> new TodoNotFoundException(id));
     }
 
+    /* Live rows first, as in getPage: an item archived in between is read twice rather than missed. */
     @Transactional(readOnly = true)
-    public List<TodoItem> getAll() {
-        return repository.findAll();
+    public List<TodoView> getAll(String ownerId) {
+        List<TodoView> hot = repository.findViewsByOwner(ownerId);
+        List<TodoView> archived = archive.findViewsByOwner(ownerId);
+        return merge(hot, archived, Comparator.comparing(TodoView::id), Integer.MAX_VALUE);
     }
 
     @Transactional(readOnly = true)
-    public List<TodoItem> getNotDone() {
-        return repository.findByStatus(TodoStatus.NOT_DONE);
+    public List<TodoView> getNotDone(String ownerId) {
+        return repository.findViewsByOwnerAndStatus(ownerId, TodoStatus.NOT_DONE);
+    }
+
+    /*
+     * Keyset pagination: fetches one row past the page to learn whether a
+     * next page exists, without a count query or OFFSET. Unless the status
+     * filter rules them out, archived rows are read the same way and merged
+     * in by the sort key, so archiving never moves an item between pages.
+     * The live rows are read first: an item archived in between is then
+     * read twice rather than missed. Both queries select straight into
+     * TodoView, so no entity is loaded or managed.
+     */
+    @Transactional(readOnly = true)
+    public TodoPage getPage(TodoPageQuery query) {
+        List<TodoView> rows = findPageViews(TodoItem.class, query);
+        if (includesArchived(query.statuses())) {
+            List<TodoView> archived = findPageViews(ArchivedTodoItem.class, query);
+            rows = merge(rows, archived, query.sortKey().order(), query.limit() + 1);
+        }
+
+        if (rows.size() <= query.limit()) {
+            return new TodoPage(rows, null);
+        }
+        List<TodoView> items = rows.subList(0, query.limit());
+        TodoView last = items.get(items.size() - 1);
+        return new TodoPage(List.copyOf(items), TodoCursor.after(last, query.sortKey()));
+    }
+
+    private <T> List<TodoView> findPageViews(Class<T> entity, TodoPageQuery query) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TodoView> criteria = cb.createQuery(TodoView.class);
+        Root<T> root = criteria.from(entity);
+        criteria.select(cb.construct(TodoView.class,
+                root.get("id"),
+                root.get("ownerId"),
+                root.get("description"),
+                root.get("status"),
+                root.get("createdAt"),
+                root.get("dueAt"),
+                root.get("doneAt"),
+                root.get("version")));
+        Predicate filter = TodoService.<T>pageSpec(query).toPredicate(root, criteria, cb);
+        if (filter != null) {
+            criteria.where(filter);
+        }
+        criteria.orderBy(TodoSpecifications.keysetOrder(root, cb, query.sortKey()));
+        return entityManager.createQuery(criteria)
+                .setMaxResults(query.limit() + 1)
+                .getResultList();
+    }
+
+    private static <T> Specification<T> pageSpec(TodoPageQuery query) {
+        return Specification.allOf(
+                TodoSpecifications.ownedBy(query.ownerId()),
+                TodoSpecifications.statusIn(query.statuses()),
+                TodoSpecifications.dueBetween(query.dueFrom(), query.dueTo()),
+                TodoSpecifications.createdBetween(query.createdFrom(), query.createdTo()),
+                TodoSpecifications.after(query.after()));
+    }
+
+    /* The archive only ever holds DONE and PAST_DUE items. */
+    private static boolean includesArchived(Set<TodoStatus> statuses) {
+        return statuses.isEmpty() || statuses.contains(TodoStatus.DONE) || statuses.contains(TodoStatus.PAST_DUE);
+    }
+
+    /* Both lists are in keyset order; a row present in both is kept once. */
+    private static List<TodoView> merge(List<TodoView> hot, List<TodoView> archived, Comparator<TodoView> order, int limit) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        List<TodoView> merged = new ArrayList<>(Math.min(limit, hot.size() + archived.size()));
+        int h = 0;
+        int a = 0;
+        while (merged.size() < limit && (h < hot.size() || a < archived.size())) {
+            if (a == archived.size()) {
+                merged.add(hot.get(h++));
+            } else if (h == hot.size()) {
+                merged.add(archived.get(a++));
+            } else {
+                int byKey = order.compare(hot.get(h), archived.get(a));
+                if (byKey == 0) {
+                    a++;
+                }
+                merged.add(byKey <= 0 ? hot.get(h++) : archived.get(a++));
+            }
+        }
+        return merged;
     }
 
     public void changeDescription(Long id, String newDescription) {
-        TodoItem item = getById(id);
+        changeDescription(id, newDescription, null);
+    }
+
+    /*
+     * expectedVersion is the version the caller last saw (If-Match); null
+     * skips the check. Concurrent writers are still caught by the @Version
+     * check at flush time.
+     */
+    public void changeDescription(Long id, String newDescription, Long expectedVersion) {
+        changeDescription(null, id, newDescription, expectedVersion);
+    }
+
+    /*
+     * ownerId, when given, must own the item; someone else's item is
+     * reported as not found rather than forbidden, so ids of other owners
+     * cannot be probed.
+     */
+    public void changeDescription(String ownerId, Long id, String newDescription, Long expectedVersion) {
+        TodoItem item = getForUpdate(ownerId, id, expectedVersion);
+        TodoSnapshot before = item.snapshot();
         try {
             item.changeDescription(newDescription);
         } catch (IllegalStateException e) {
             throw new InvalidTodoStateException(e.getMessage());
         }
+        events.publishEvent(TodoChangedEvent.of(TodoChangeType.DESCRIPTION_CHANGED,
+                TodoChange.of(before, item.snapshot())));
     }
 
     public void markDone(Long id) {
-        TodoItem item = getById(id);
+        markDone(id, null);
+    }
+
+    public void markDone(Long id, Long expectedVersion) {
+        markDone(null, id, expectedVersion);
+    }
+
+    public void markDone(String ownerId, Long id, Long expectedVersion) {
+        TodoItem item = getForUpdate(ownerId, id, expectedVersion);
+        TodoSnapshot before = item.snapshot();
         try {
             item.markDone();
         } catch (IllegalStateException e) {
             throw new InvalidTodoStateException(e.getMessage());
         }
+        events.publishEvent(TodoChangedEvent.of(TodoChangeType.DONE,
+                TodoChange.of(before, item.snapshot())));
     }
 
     public void markNotDone(Long id) {
-        TodoItem item = getById(id);
+        markNotDone(id, null);
+    }
+
+    public void markNotDone(Long id, Long expectedVersion) {
+        markNotDone(null, id, expectedVersion);
+    }
+
+    public void markNotDone(String ownerId, Long id, Long expectedVersion) {
+        TodoItem item = getForUpdate(ownerId, id, expectedVersion);
+        TodoSnapshot before = item.snapshot();
         try {
             item.markNotDone();
         } catch (IllegalStateException e) {
             throw new InvalidTodoStateException(e.getMessage());
         }
+        events.publishEvent(TodoChangedEvent.of(TodoChangeType.NOT_DONE,
+                TodoChange.of(before, item.snapshot())));
     }
 
-    public void markPastDueItems() {
-        List<TodoItem> overdueItems = repository.findByStatusAndDueAtBefore(
-                TodoStatus.NOT_DONE,
-                OffsetDateTime.now());
+    /* Archived items are read-only; the owner check applies to them as well. */
+    private TodoItem getForUpdate(String ownerId, Long id, Long expectedVersion) {
+        TodoItem item = repository.findById(id).orElse(null);
+        if (item == null) {
+            boolean archived = archive.findViewById(id)
+                    .filter(view -> ownerId == null || ownerId.equals(view.ownerId()))
+                    .isPresent();
+            throw archived
+                    ? new InvalidTodoStateException("Archived items cannot be modified")
+                    : new TodoNotFoundException(id);
+        }
+        if (ownerId != null && !ownerId.equals(item.getOwnerId())) {
+            throw new TodoNotFoundException(id);
+        }
+        if (expectedVersion != null && item.getVersion() != expectedVersion) {
+            throw new TodoVersionMismatchException(id, expectedVersion, item.getVersion());
+        }
+        return item;
+    }
+
+    /*
+     * Whole sweep on the calling thread, one shard after another. The
+     * scheduler runs the shards in parallel and across instances instead.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PastDueSweepResult markPastDueItems() {
+        long start = System.nanoTime();
+        OffsetDateTime cutoff = OffsetDateTime.now();
+        int updated = 0;
+        int chunks = 0;
+        for (int shard = 0; shard < TodoItem.SWEEP_SHARDS; shard++) {
+            PastDueSweepResult result = markPastDueItems(shard, cutoff, () -> true);
+            updated += result.updatedRows();
+            chunks += result.chunks();
+        }
+        return new PastDueSweepResult(
+                updated,
+                chunks,
+                Duration.ofNanos(System.nanoTime() - start));
+    }
 
-        overdueItems.forEach(TodoItem::markPastDue);
-        overdueItems.forEach(repository::save);
+    /*
+     * Bulk sweep of one shard: drains its overdue rows in chunks and flips
+     * each chunk with a single UPDATE. No entities are loaded and every
+     * chunk commits in its own short transaction, so neither the heap nor
+     * the transaction grows with the backlog. beforeNextChunk is asked
+     * before every chunk after the first and stops the sweep when it
+     * returns false.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PastDueSweepResult markPastDueItems(int shard, OffsetDateTime cutoff, BooleanSupplier beforeNextChunk) {
+        long start = System.nanoTime();
+        int updated = 0;
+        int chunks = 0;
+
+        List<TodoView> due;
+        int flipped;
+        do {
+            if (chunks > 0 && !beforeNextChunk.getAsBoolean()) {
+                break;
+            }
+            due = repository.findViewsBySweepShardAndStatusAndDueAtBefore(
+                    shard,
+                    TodoStatus.NOT_DONE,
+                    cutoff,
+                    Limit.of(sweepChunkSize));
+            if (due.isEmpty()) {
+                break;
+            }
+            flipped = flipToPastDue(due);
+            updated += flipped;
+            chunks++;
+            /* A chunk that flipped nothing was taken by other writers; leave the rest to the next run. */
+        } while (due.size() == sweepChunkSize && flipped > 0);
+
+        return new PastDueSweepResult(
+                updated,
+                chunks,
+                Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /*
+     * Targeted variant of the sweep for ids already known to be due, used by
+     * the deadline index. Rows that changed in the meantime are skipped by
+     * the status guard.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int markPastDue(List<Long> ids) {
+        int updated = 0;
+        for (int from = 0; from < ids.size(); from += sweepChunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + sweepChunkSize, ids.size()));
+            updated += flipToPastDue(repository.findViewsByIdInAndStatus(chunk, TodoStatus.NOT_DONE));
+        }
+        return updated;
+    }
+
+    /* The update and its event share a transaction, so the change is counted before it commits. */
+    private int flipToPastDue(List<TodoView> due) {
+        if (due.isEmpty()) {
+            return 0;
+        }
+        Integer updated = transactions.execute(status -> flip(due));
+        return updated == null ? 0 : updated;
+    }
+
+    private int flip(List<TodoView> due) {
+        List<Long> ids = due.stream()
+                .map(TodoView::id)
+                .toList();
+        int updated = repository.updateStatusByIds(
+                ids,
+                TodoStatus.NOT_DONE,
+                TodoStatus.PAST_DUE);
+        if (updated == 0) {
+            return 0;
+        }
+        /* Only re-read the chunk when some rows lost the race to another writer. */
+        List<TodoView> changed = due;
+        if (updated < due.size()) {
+            Set<Long> flipped = Set.copyOf(repository.findIdsByIdInAndStatus(ids, TodoStatus.PAST_DUE));
+            changed = due.stream()
+                    .filter(view -> flipped.contains(view.id()))
+                    .toList();
+        }
+        events.publishEvent(TodoChangedEvent.pastDue(changed.stream()
+                .map(TodoView::snapshot)
+                .toList()));
+        return updated;
     }
 }
@@ -0,0 +1,73 @@
+package com.example.todo_service.service.archive;
+
+import com.example.todo_service.repository.ArchivedTodoItemRepository;
+import com.example.todo_service.repository.TodoItemRepository;
+import com.example.todo_service.service.writebehind.TodoStatusWriteBehind;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Moves finished items out of todo_items into todo_items_archive: DONE
+ * items by completion time, PAST_DUE items by due date. Nothing about an
+ * item changes on the way, so no change event is published; readers that
+ * need finished items (lookups by id, includeDone listings, export,
+ * search, statistics) read both tables.
+ *
+ * Each batch locks its rows, copies them and deletes them in one
+ * transaction, so an item is in exactly one table at any time and a
+ * concurrent writer either commits before the move or finds the item
+ * archived. Items with a write-behind transition pending are left for a
+ * later run; the rest are claimed, so write-behind cannot defer a
+ * transition for them until the batch has committed.
+ */
+@Service
+public class TodoArchiver {
+
+    private final TodoItemRepository repository;
+    private final ArchivedTodoItemRepository archive;
+    private final TodoStatusWriteBehind statusWrites;
+    private final int batchSize;
+
+    public TodoArchiver(
+            TodoItemRepository repository,
+            ArchivedTodoItemRepository archive,
+            TodoStatusWriteBehind statusWrites,
+            @Value("${todo.archive.batch-size:1000}") int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Archive batch size must be positive");
+        }
+        this.repository = repository;
+        this.archive = archive;
+        this.statusWrites = statusWrites;
+        this.batchSize = batchSize;
+    }
+
+    /* Moves up to one batch of items finished before cutoff; returns how many were moved. */
+    @Transactional
+    public int archiveBatch(OffsetDateTime cutoff) {
+        List<Long> ids = new ArrayList<>(repository.lockDoneBefore(cutoff, batchSize));
+        if (ids.size() < batchSize) {
+            ids.addAll(repository.lockPastDueBefore(cutoff, batchSize - ids.size()));
+        }
+        ids = statusWrites.claimForArchive(ids);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archive.copyFromTodoItems(ids, OffsetDateTime.now());
+        repository.deleteAllByIdInBatch(ids);
+        return ids.size();
+    }
+
+    public long hotRows() {
+        return repository.count();
+    }
+
+    public long archivedRows() {
+        return archive.count();
+    }
+}
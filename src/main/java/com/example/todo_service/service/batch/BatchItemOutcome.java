@@ -0,0 +1,13 @@
+package com.example.todo_service.service.batch;
+
+public enum BatchItemOutcome {
+    CREATED,
+    UPDATED,
+    INVALID,
+    NOT_FOUND,
+    CONFLICT;
+
+    public boolean isSuccess() {
+        return this == CREATED || this == UPDATED;
+    }
+}
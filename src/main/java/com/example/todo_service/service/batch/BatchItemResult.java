@@ -0,0 +1,18 @@
+package com.example.todo_service.service.batch;
+
+import com.example.todo_service.domain.TodoItem;
+
+/*
+ * Outcome for one entry of a batch request; index is the position of the
+ * entry in the request. item is only set on success.
+ */
+public record BatchItemResult(int index, Long id, BatchItemOutcome outcome, String error, TodoItem item) {
+
+    static BatchItemResult success(int index, BatchItemOutcome outcome, TodoItem item) {
+        return new BatchItemResult(index, item.getId(), outcome, null, item);
+    }
+
+    static BatchItemResult failure(int index, Long id, BatchItemOutcome outcome, String error) {
+        return new BatchItemResult(index, id, outcome, error, null);
+    }
+}
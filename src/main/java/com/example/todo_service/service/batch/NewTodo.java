@@ -0,0 +1,6 @@
+package com.example.todo_service.service.batch;
+
+import java.time.OffsetDateTime;
+
+public record NewTodo(String ownerId, String description, OffsetDateTime dueAt) {
+}
@@ -0,0 +1,173 @@
+package com.example.todo_service.service.batch;
+
+import com.example.todo_service.domain.TodoItem;
+import com.example.todo_service.domain.TodoSnapshot;
+import com.example.todo_service.repository.TodoItemRepository;
+import com.example.todo_service.service.event.TodoChange;
+import com.example.todo_service.service.event.TodoChangeType;
+import com.example.todo_service.service.event.TodoChangedEvent;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/*
+ * Bulk variants of create / mark done / mark not done. Each request runs in
+ * one transaction; the persistence context is flushed and cleared every
+ * flushSize entities so Hibernate sends full JDBC batches and the context
+ * never holds more than one batch. Transitions only touch items of the
+ * given owner; anyone else's id is reported as not found.
+ */
+@Service
+@Transactional
+@Observed(name = "todo.service")
+public class TodoBatchService {
+
+    private static final int MAX_DESCRIPTION_LENGTH = 255;
+
+    private final TodoItemRepository repository;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher events;
+    private final int maxItems;
+    private final int flushSize;
+
+    public TodoBatchService(
+            TodoItemRepository repository,
+            EntityManager entityManager,
+            ApplicationEventPublisher events,
+            @Value("${todo.batch.max-items:5000}") int maxItems,
+            @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}") int flushSize) {
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.events = events;
+        this.maxItems = maxItems;
+        this.flushSize = flushSize;
+    }
+
+    public List<BatchItemResult> addTodos(List<NewTodo> todos) {
+        checkSize(todos);
+        List<BatchItemResult> results = new ArrayList<>(todos.size());
+        List<TodoChange> changes = new ArrayList<>(todos.size());
+        int pending = 0;
+
+        for (int i = 0; i < todos.size(); i++) {
+            NewTodo todo = todos.get(i);
+            String error = validate(todo);
+            if (error != null) {
+                results.add(BatchItemResult.failure(i, null, BatchItemOutcome.INVALID, error));
+                continue;
+            }
+            TodoItem item = new TodoItem(todo.ownerId(), todo.description(), todo.dueAt());
+            entityManager.persist(item);
+            results.add(BatchItemResult.success(i, BatchItemOutcome.CREATED, item));
+            changes.add(TodoChange.of(null, item.snapshot()));
+            if (++pending == flushSize) {
+                flushAndClear();
+                pending = 0;
+            }
+        }
+        flushAndClear();
+        publish(TodoChangeType.CREATED, changes);
+        return results;
+    }
+
+    public List<BatchItemResult> markDone(String ownerId, List<Long> ids) {
+        return transition(ownerId, ids, TodoItem::markDone, TodoChangeType.DONE);
+    }
+
+    public List<BatchItemResult> markNotDone(String ownerId, List<Long> ids) {
+        return transition(ownerId, ids, TodoItem::markNotDone, TodoChangeType.NOT_DONE);
+    }
+
+    private List<BatchItemResult> transition(
+            String ownerId,
+            List<Long> ids,
+            Consumer<TodoItem> change,
+            TodoChangeType type) {
+        checkSize(ids);
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        Map<Long, TodoChange> changes = new LinkedHashMap<>();
+
+        for (int from = 0; from < ids.size(); from += flushSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + flushSize, ids.size()));
+            List<Long> lookup = chunk.stream()
+                    .filter(Objects::nonNull)
+                    .toList();
+            Map<Long, TodoItem> found = repository.findAllById(lookup).stream()
+                    .filter(item -> item.getOwnerId().equals(ownerId))
+                    .collect(Collectors.toMap(TodoItem::getId, Function.identity()));
+
+            for (int i = 0; i < chunk.size(); i++) {
+                int index = from + i;
+                Long id = chunk.get(i);
+                TodoItem item = id == null ? null : found.get(id);
+                if (item == null) {
+                    results.add(BatchItemResult.failure(index, id, BatchItemOutcome.NOT_FOUND,
+                            "Todo item not found: " + id));
+                    continue;
+                }
+                TodoSnapshot before = item.snapshot();
+                try {
+                    change.accept(item);
+                    results.add(BatchItemResult.success(index, BatchItemOutcome.UPDATED, item));
+                    /* A repeated id keeps the state it had before its first change. */
+                    changes.merge(id, TodoChange.of(before, item.snapshot()),
+                            (first, latest) -> new TodoChange(id, first.before(), latest.after()));
+                } catch (IllegalStateException e) {
+                    results.add(BatchItemResult.failure(index, id, BatchItemOutcome.CONFLICT, e.getMessage()));
+                }
+            }
+            flushAndClear();
+        }
+        publish(type, List.copyOf(changes.values()));
+        return results;
+    }
+
+    private void checkSize(List<?> entries) {
+        if (entries == null || entries.isEmpty()) {
+            throw new IllegalArgumentException("Batch must not be empty");
+        }
+        if (entries.size() > maxItems) {
+            throw new IllegalArgumentException(
+                    "Batch exceeds the maximum of " + maxItems + " items");
+        }
+    }
+
+    private static String validate(NewTodo todo) {
+        if (todo == null) {
+            return "Item is required";
+        }
+        if (todo.description() == null || todo.description().isBlank()) {
+            return "Description is required";
+        }
+        if (todo.description().length() > MAX_DESCRIPTION_LENGTH) {
+            return "Description must be at most " + MAX_DESCRIPTION_LENGTH + " characters";
+        }
+        if (todo.dueAt() == null) {
+            return "Due date is required";
+        }
+        return null;
+    }
+
+    private void publish(TodoChangeType type, List<TodoChange> changes) {
+        if (!changes.isEmpty()) {
+            events.publishEvent(new TodoChangedEvent(type, changes));
+        }
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
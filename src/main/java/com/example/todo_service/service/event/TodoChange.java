@@ -0,0 +1,15 @@
+package com.example.todo_service.service.event;
+
+import com.example.todo_service.domain.TodoSnapshot;
+
+/*
+ * One changed item: its state before and after the change. before is null
+ * for new items. Listeners that keep aggregates can retract "before" and
+ * apply "after" without reading the row again.
+ */
+public record TodoChange(Long id, TodoSnapshot before, TodoSnapshot after) {
+
+    public static TodoChange of(TodoSnapshot before, TodoSnapshot after) {
+        return new TodoChange(after.id(), before, after);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.todo_service.service.event;
+
+public enum TodoChangeType {
+    CREATED,
+    DESCRIPTION_CHANGED,
+    DONE,
+    NOT_DONE,
+    PAST_DUE
+}
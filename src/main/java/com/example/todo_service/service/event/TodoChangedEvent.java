@@ -0,0 +1,54 @@
+package com.example.todo_service.service.event;
+
+import com.example.todo_service.domain.TodoSnapshot;
+import com.example.todo_service.domain.TodoStatus;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/*
+ * Published by the service layer whenever todo items are written. Listeners
+ * that mirror state outside the database should use
+ * @TransactionalEventListener so they only see committed changes.
+ */
+public record TodoChangedEvent(TodoChangeType type, List<TodoChange> changes) {
+
+    public TodoChangedEvent {
+        changes = List.copyOf(changes);
+    }
+
+    public static TodoChangedEvent of(TodoChangeType type, TodoChange change) {
+        return new TodoChangedEvent(type, List.of(change));
+    }
+
+    /*
+     * Rows flipped NOT_DONE -> PAST_DUE by a set-based update, given as they
+     * were read before the update.
+     */
+    public static TodoChangedEvent pastDue(List<TodoSnapshot> before) {
+        return new TodoChangedEvent(TodoChangeType.PAST_DUE, before.stream()
+                .map(snapshot -> TodoChange.of(snapshot, snapshot.withStatus(TodoStatus.PAST_DUE)))
+                .toList());
+    }
+
+    public List<Long> ids() {
+        return changes.stream()
+                .map(TodoChange::id)
+                .toList();
+    }
+
+    /* Owners of the changed items, before and after the change, in order. */
+    public Set<String> owners() {
+        Set<String> owners = new TreeSet<>();
+        for (TodoChange change : changes) {
+            if (change.before() != null) {
+                owners.add(change.before().ownerId());
+            }
+            if (change.after() != null) {
+                owners.add(change.after().ownerId());
+            }
+        }
+        return owners;
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.todo_service.service.event;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Per-owner change counter in todo_owner_changes, shared by all instances.
+ * Every transaction that publishes a TodoChangedEvent bumps the counter of
+ * each owner it touched once, right before it commits: after the
+ * persistence context is flushed and in owner order, so the row locks are
+ * taken last and always in the same order.
+ *
+ * A counter read before a query is never newer than the rows the query
+ * sees, so state tagged with it is at worst refreshed once too often.
+ * committedHere counts the bumps made by this instance, which tells local
+ * mirrors apart from writes made elsewhere.
+ *
+ * known() serves the counters from memory, for the read paths that must
+ * not query per request. Each commit made here sets the value it wrote;
+ * refresh(), run every todo.owner-changes.refresh-interval, picks up the
+ * bumps of other instances, so they show within that lag. Counters only
+ * grow, so every update keeps the larger value.
+ */
+@Component
+public class TodoOwnerChanges {
+
+    private static final String BUMP = "UPDATE todo_owner_changes SET changes = changes + 1 WHERE owner_id = ?";
+    private static final String INSERT = "INSERT INTO todo_owner_changes (owner_id, changes) VALUES (?, ?)";
+    private static final String SELECT = "SELECT changes FROM todo_owner_changes WHERE owner_id = ?";
+
+    private final JdbcTemplate jdbc;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactions;
+    private final Map<String, Long> committedHere = new ConcurrentHashMap<>();
+    private final Map<String, Long> known = new ConcurrentHashMap<>();
+
+    public TodoOwnerChanges(JdbcTemplate jdbc, EntityManager entityManager, PlatformTransactionManager transactionManager) {
+        this.jdbc = jdbc;
+        this.entityManager = entityManager;
+        this.transactions = new TransactionTemplate(transactionManager);
+    }
+
+    /* Only queries for an owner this instance has not seen yet. */
+    public long known(String ownerId) {
+        Long changes = known.get(ownerId);
+        return changes != null ? changes : known.merge(ownerId, current(ownerId), Math::max);
+    }
+
+    /* Moves known() to the table for the owners it holds; returns how many had moved. */
+    public int refresh() {
+        AtomicInteger moved = new AtomicInteger();
+        all().forEach((owner, changes) -> known.computeIfPresent(owner, (key, held) -> {
+            if (changes > held) {
+                moved.incrementAndGet();
+                return changes;
+            }
+            return held;
+        }));
+        return moved.get();
+    }
+
+    public Map<String, Long> all() {
+        Map<String, Long> changes = new HashMap<>();
+        jdbc.query("SELECT owner_id, changes FROM todo_owner_changes",
+                (RowCallbackHandler) row -> changes.put(row.getString(1), row.getLong(2)));
+        return changes;
+    }
+
+    /* Read before all(), a commit in between can only make this look behind. */
+    public Map<String, Long> committedHere() {
+        return Map.copyOf(committedHere);
+    }
+
+    /* Runs in the publishing transaction; collects owners until it commits. */
+    @EventListener
+    public void onTodoChanged(TodoChangedEvent event) {
+        Set<String> owners = event.owners();
+        if (owners.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            /* Writers publish inside their transaction; this only keeps a stray publisher counted. */
+            count(transactions.execute(status -> bump(owners)));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<String> touched = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (touched == null) {
+            touched = new TreeSet<>();
+            TransactionSynchronizationManager.bindResource(this, touched);
+            TransactionSynchronizationManager.registerSynchronization(new Bump(touched));
+        }
+        touched.addAll(owners);
+    }
+
+    private long current(String ownerId) {
+        return jdbc.queryForList(SELECT, Long.class, ownerId)
+                .stream()
+                .findFirst()
+                .orElse(0L);
+    }
+
+    /* Returns the counters as written; the rows stay locked until commit, so they are final. */
+    private Map<String, Long> bump(Set<String> owners) {
+        return jdbc.execute((ConnectionCallback<Map<String, Long>>) connection -> {
+            Map<String, Long> written = new HashMap<>();
+            for (String owner : owners) {
+                written.put(owner, bump(connection, owner));
+            }
+            return written;
+        });
+    }
+
+    /* A missing row is inserted under a savepoint, so losing the race to another inserter only undoes the insert. */
+    private static long bump(Connection connection, String owner) throws SQLException {
+        if (update(connection, owner) > 0) {
+            return select(connection, owner);
+        }
+        Savepoint savepoint = connection.setSavepoint();
+        long start = ThreadLocalRandom.current().nextLong(1_000_000_000_000L);
+        try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+            insert.setString(1, owner);
+            insert.setLong(2, start);
+            insert.executeUpdate();
+            connection.releaseSavepoint(savepoint);
+            return start;
+        } catch (SQLException e) {
+            if (!"23505".equals(e.getSQLState())) {
+                throw e;
+            }
+            connection.rollback(savepoint);
+            update(connection, owner);
+            return select(connection, owner);
+        }
+    }
+
+    private static long select(Connection connection, String owner) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement(SELECT)) {
+            select.setString(1, owner);
+            try (ResultSet row = select.executeQuery()) {
+                row.next();
+                return row.getLong(1);
+            }
+        }
+    }
+
+    private static int update(Connection connection, String owner) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement(BUMP)) {
+            update.setString(1, owner);
+            return update.executeUpdate();
+        }
+    }
+
+    private void count(Map<String, Long> written) {
+        written.forEach((owner, changes) -> {
+            committedHere.merge(owner, 1L, Long::sum);
+            known.merge(owner, changes, Math::max);
+        });
+    }
+
+    private final class Bump implements TransactionSynchronization {
+
+        private final Set<String> owners;
+        private Map<String, Long> written = Map.of();
+
+        Bump(Set<String> owners) {
+            this.owners = owners;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            entityManager.flush();
+            written = bump(owners);
+        }
+
+        @Override
+        public void afterCommit() {
+            count(written);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResource(TodoOwnerChanges.this);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.todo_service.service.exception;
+
+public class TodoVersionMismatchException extends RuntimeException {
+
+    public TodoVersionMismatchException(Long id, long expectedVersion, long actualVersion) {
+        super("Todo item " + id + " is at version " + actualVersion
+                + ", expected " + expectedVersion);
+    }
+}
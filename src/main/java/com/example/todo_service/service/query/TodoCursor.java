@@ -0,0 +1,48 @@
+package com.example.todo_service.service.query;
+
+import com.example.todo_service.repository.TodoView;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/*
+ * Position of the last row of a page. Encoded as an opaque url-safe token so
+ * clients cannot depend on its layout.
+ */
+public record TodoCursor(TodoSortKey sortKey, OffsetDateTime dueAt, long id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static TodoCursor after(TodoView item, TodoSortKey sortKey) {
+        return new TodoCursor(sortKey, item.dueAt(), item.id());
+    }
+
+    public String encode() {
+        String raw = sortKey == TodoSortKey.DUE_AT
+                ? sortKey.name() + SEPARATOR + id + SEPARATOR + dueAt
+                : sortKey.name() + SEPARATOR + id;
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TodoCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            TodoSortKey sortKey = TodoSortKey.valueOf(parts[0]);
+            long id = Long.parseLong(parts[1]);
+            if (sortKey == TodoSortKey.DUE_AT) {
+                return new TodoCursor(sortKey, OffsetDateTime.parse(parts[2]), id);
+            }
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new TodoCursor(sortKey, null, id);
+        } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
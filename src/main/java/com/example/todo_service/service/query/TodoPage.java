@@ -0,0 +1,12 @@
+package com.example.todo_service.service.query;
+
+import com.example.todo_service.repository.TodoView;
+
+import java.util.List;
+
+public record TodoPage(List<TodoView> items, TodoCursor next) {
+
+    public boolean hasNext() {
+        return next != null;
+    }
+}
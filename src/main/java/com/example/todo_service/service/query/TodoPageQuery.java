@@ -0,0 +1,36 @@
+package com.example.todo_service.service.query;
+
+import com.example.todo_service.domain.TodoStatus;
+
+import java.time.OffsetDateTime;
+import java.util.Objects;
+import java.util.Set;
+
+/*
+ * Filters and keyset position for one page of the listing. Range bounds are
+ * inclusive-from / exclusive-to; null means unbounded. A page only ever
+ * holds items of one owner.
+ */
+public record TodoPageQuery(
+        String ownerId,
+        Set<TodoStatus> statuses,
+        OffsetDateTime dueFrom,
+        OffsetDateTime dueTo,
+        OffsetDateTime createdFrom,
+        OffsetDateTime createdTo,
+        TodoSortKey sortKey,
+        TodoCursor after,
+        int limit
+) {
+
+    public TodoPageQuery {
+        Objects.requireNonNull(ownerId, "ownerId");
+        statuses = statuses == null ? Set.of() : Set.copyOf(statuses);
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        if (after != null && after.sortKey() != sortKey) {
+            throw new IllegalArgumentException("Cursor does not match sort key: " + sortKey.param());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.todo_service.service.query;
+
+import com.example.todo_service.repository.TodoView;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+public enum TodoSortKey {
+    ID("id", Comparator.comparing(TodoView::id)),
+    DUE_AT("dueAt", Comparator.comparing(TodoView::dueAt).thenComparing(TodoView::id));
+
+    private final String param;
+    private final Comparator<TodoView> order;
+
+    TodoSortKey(String param, Comparator<TodoView> order) {
+        this.param = param;
+        this.order = order;
+    }
+
+    public String param() {
+        return param;
+    }
+
+    /* The keyset order, for merging rows read from different tables. */
+    public Comparator<TodoView> order() {
+        return order;
+    }
+
+    public static TodoSortKey fromParam(String param) {
+        return Arrays.stream(values())
+                .filter(key -> key.param.equals(param))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported sort key: " + param));
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.todo_service.service.query;
+
+import com.example.todo_service.domain.TodoStatus;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Set;
+
+/*
+ * Filters by attribute name, so they apply to TodoItem and ArchivedTodoItem
+ * alike.
+ */
+public final class TodoSpecifications {
+
+    private TodoSpecifications() {
+    }
+
+    public static <T> Specification<T> ownedBy(String ownerId) {
+        return (root, query, cb) -> cb.equal(root.get("ownerId"), ownerId);
+    }
+
+    public static <T> Specification<T> statusIn(Set<TodoStatus> statuses) {
+        return (root, query, cb) -> statuses.isEmpty()
+                ? null
+                : root.get("status").in(statuses);
+    }
+
+    public static <T> Specification<T> dueBetween(OffsetDateTime from, OffsetDateTime to) {
+        return range("dueAt", from, to);
+    }
+
+    public static <T> Specification<T> createdBetween(OffsetDateTime from, OffsetDateTime to) {
+        return range("createdAt", from, to);
+    }
+
+    /*
+     * Keyset predicate: rows strictly after the cursor in the given order.
+     * Paired with an index on the sort columns this is a range scan, no
+     * matter how deep the client has paged.
+     */
+    public static <T> Specification<T> after(TodoCursor cursor) {
+        return (root, query, cb) -> {
+            if (cursor == null) {
+                return null;
+            }
+            if (cursor.sortKey() == TodoSortKey.ID) {
+                return cb.greaterThan(root.get("id"), cursor.id());
+            }
+            return cb.or(
+                    cb.greaterThan(root.<OffsetDateTime>get("dueAt"), cursor.dueAt()),
+                    cb.and(
+                            cb.equal(root.get("dueAt"), cursor.dueAt()),
+                            cb.greaterThan(root.get("id"), cursor.id())));
+        };
+    }
+
+    public static List<Order> keysetOrder(Root<?> root, CriteriaBuilder cb, TodoSortKey sortKey) {
+        return sortKey == TodoSortKey.DUE_AT
+                ? List.of(cb.asc(root.get("dueAt")), cb.asc(root.get("id")))
+                : List.of(cb.asc(root.get("id")));
+    }
+
+    private static <T> Specification<T> range(String attribute, OffsetDateTime from, OffsetDateTime to) {
+        return (root, query, cb) -> {
+            if (from == null && to == null) {
+                return null;
+            }
+            if (to == null) {
+                return cb.greaterThanOrEqualTo(root.get(attribute), from);
+            }
+            if (from == null) {
+                return cb.lessThan(root.get(attribute), to);
+            }
+            return cb.and(
+                    cb.greaterThanOrEqualTo(root.get(attribute), from),
+                    cb.lessThan(root.get(attribute), to));
+        };
+    }
+}
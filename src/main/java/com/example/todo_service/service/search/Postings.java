@@ -0,0 +1,83 @@
+package com.example.todo_service.service.search;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+
+/*
+ * Ids of the documents containing one term. Append-only for a single writer
+ * (the index holds its write lock) and readable without locking: a reader
+ * takes the current (array, size) pair once and never sees a slot that was
+ * not written before it was published.
+ *
+ * Removal is lazy. A document that loses the term stays listed and is
+ * counted as stale; readers check every id against the document's current
+ * terms, and the list is compacted once most of it is stale.
+ */
+final class Postings {
+
+    private record Slice(long[] ids, int size) {
+    }
+
+    private final String term;
+    private volatile Slice slice = new Slice(new long[4], 0);
+    private int stale;
+
+    Postings(String term) {
+        this.term = term;
+    }
+
+    String term() {
+        return term;
+    }
+
+    void add(long id) {
+        Slice current = slice;
+        long[] ids = current.ids();
+        if (current.size() == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+        }
+        ids[current.size()] = id;
+        slice = new Slice(ids, current.size() + 1);
+    }
+
+    void markStale() {
+        stale++;
+    }
+
+    boolean needsCompaction() {
+        return stale > 16 && stale * 2 > slice.size();
+    }
+
+    /* Keeps the ids for which keep is true, dropping duplicates. */
+    void compact(LongPredicate keep) {
+        Slice current = slice;
+        long[] sorted = Arrays.copyOf(current.ids(), current.size());
+        Arrays.sort(sorted);
+        int live = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if ((live == 0 || sorted[live - 1] != sorted[i]) && keep.test(sorted[i])) {
+                sorted[live++] = sorted[i];
+            }
+        }
+        slice = new Slice(Arrays.copyOf(sorted, Math.max(4, live)), live);
+        stale = 0;
+    }
+
+    boolean isEmpty() {
+        return slice.size() == 0;
+    }
+
+    /* Approximate number of documents containing the term. */
+    int documentFrequency() {
+        return Math.max(1, slice.size() - stale);
+    }
+
+    void forEach(LongConsumer action) {
+        Slice current = slice;
+        long[] ids = current.ids();
+        for (int i = 0; i < current.size(); i++) {
+            action.accept(ids[i]);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package com.example.todo_service.service.search;
+
+public record SearchHit(long id, double score) {
+}
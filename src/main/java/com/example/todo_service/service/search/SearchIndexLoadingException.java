@@ -0,0 +1,8 @@
+package com.example.todo_service.service.search;
+
+public class SearchIndexLoadingException extends RuntimeException {
+
+    public SearchIndexLoadingException() {
+        super("Search index is still loading, retry shortly");
+    }
+}
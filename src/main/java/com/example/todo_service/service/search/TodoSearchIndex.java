@@ -0,0 +1,529 @@
+package com.example.todo_service.service.search;
+
+import com.example.todo_service.domain.TodoSnapshot;
+import com.example.todo_service.domain.TodoStatus;
+import com.example.todo_service.repository.ArchivedTodoItemRepository;
+import com.example.todo_service.repository.TodoItemRepository;
+import com.example.todo_service.repository.TodoView;
+import com.example.todo_service.service.event.TodoChange;
+import com.example.todo_service.service.event.TodoChangedEvent;
+import com.example.todo_service.service.event.TodoOwnerChanges;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * In-memory inverted index over todo descriptions, with each document's
+ * status and due date so filters are applied without touching the
+ * database. Every owner has a partition of its own, with its own
+ * dictionary and term statistics, so a search only walks the caller's
+ * postings and costs the same however many items other owners have.
+ * Terms are kept sorted, which turns a prefix query into a range of the
+ * dictionary.
+ *
+ * All writes (change events and the startup load) take the write lock;
+ * searches never lock. The load runs after startup in parallel id ranges.
+ * Changes committed meanwhile are applied as they arrive and win over the
+ * rows the load reads, since a document already present is never
+ * overwritten by the load.
+ *
+ * Events only report local writes. Each partition remembers the owner's
+ * change counter (TodoOwnerChanges) from before its rows were read, and
+ * reconcile reloads the partitions whose counter has moved by more than
+ * this instance's own commits. Events arriving during a reload are applied
+ * to the old partition and replayed onto the new one before it is swapped
+ * in.
+ */
+@Service
+public class TodoSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoSearchIndex.class);
+
+    /* BM25 with every term counted once per description. */
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    /* A query word that only prefixes a term counts for less than an exact match. */
+    private static final double PREFIX_WEIGHT = 0.5;
+
+    private record Doc(String[] terms, TodoStatus status, long dueAtMillis) {
+
+        boolean has(String term) {
+            for (String own : terms) {
+                if (own.equals(term)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /* findViewsInIdRange of either table. */
+    @FunctionalInterface
+    private interface RangeQuery {
+
+        List<TodoView> find(long afterId, long toId, Limit limit);
+    }
+
+    /*
+     * One owner's documents. Written under writeLock, read without locking.
+     * changes and committedHere are the owner's counters when the rows
+     * were read; UNKNOWN until a load or reload has set them.
+     */
+    private static final class Partition {
+
+        private final NavigableMap<String, Postings> dictionary = new ConcurrentSkipListMap<>();
+        private final Map<Long, Doc> docs = new ConcurrentHashMap<>();
+        private volatile long totalTerms;
+        private long changes = UNKNOWN;
+        private long committedHere;
+
+        /* Current when every write counted since the rows were read was made here. */
+        boolean isCurrent(long changes, long committedHere) {
+            return this.changes != UNKNOWN && changes - this.changes == committedHere - this.committedHere;
+        }
+    }
+
+    private static final long UNKNOWN = Long.MIN_VALUE;
+
+    private final Map<String, Partition> partitions = new ConcurrentHashMap<>();
+    /* Owners being reloaded, with the changes that arrived meanwhile. Guarded by writeLock. */
+    private final Map<String, List<TodoChange>> reloading = new HashMap<>();
+    private final AtomicInteger documentCount = new AtomicInteger();
+    private final AtomicInteger termCount = new AtomicInteger();
+
+    private final Object writeLock = new Object();
+    private volatile boolean ready;
+
+    private final TodoItemRepository repository;
+    private final ArchivedTodoItemRepository archive;
+    private final TodoOwnerChanges ownerChanges;
+    private final TaskExecutor executor;
+    private final int parallelism;
+    private final int chunkSize;
+    private final Timer rebuildTimer;
+    private final Counter reloads;
+
+    public TodoSearchIndex(
+            TodoItemRepository repository,
+            ArchivedTodoItemRepository archive,
+            TodoOwnerChanges ownerChanges,
+            @Qualifier("applicationTaskExecutor") TaskExecutor executor,
+            MeterRegistry meterRegistry,
+            @Value("${todo.search.rebuild-parallelism:0}") int parallelism,
+            @Value("${todo.search.rebuild-chunk-size:5000}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Search rebuild chunk size must be positive");
+        }
+        this.repository = repository;
+        this.archive = archive;
+        this.ownerChanges = ownerChanges;
+        this.executor = executor;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.chunkSize = chunkSize;
+        this.rebuildTimer = Timer.builder("todo.search.rebuild")
+                .description("Duration of loading the search index from the database")
+                .register(meterRegistry);
+        this.reloads = Counter.builder("todo.search.reloads")
+                .description("Owner partitions reloaded because of writes made by other instances")
+                .register(meterRegistry);
+        Gauge.builder("todo.search.documents", documentCount, AtomicInteger::get)
+                .description("Todo items held by the search index")
+                .register(meterRegistry);
+        Gauge.builder("todo.search.terms", termCount, AtomicInteger::get)
+                .description("Distinct terms in the search index, counted per owner")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        executor.execute(() -> {
+            try {
+                load();
+            } catch (RuntimeException e) {
+                log.error("Loading the search index failed; search stays unavailable", e);
+            }
+        });
+    }
+
+    /*
+     * Reads todo_items and todo_items_archive, each in `parallelism` id
+     * ranges at once and every range in keyset chunks; rows are tokenized
+     * outside the write lock and added a chunk at a time.
+     */
+    public void load() {
+        long start = System.nanoTime();
+        Map<String, Long> committed = ownerChanges.committedHere();
+        Map<String, Long> counters = ownerChanges.all();
+        List<CompletableFuture<Void>> ranges = new ArrayList<>();
+        addRanges(ranges, repository.findMaxId(), repository::findViewsInIdRange);
+        addRanges(ranges, archive.findMaxId(), archive::findViewsInIdRange);
+        CompletableFuture.allOf(ranges.toArray(CompletableFuture[]::new)).join();
+        synchronized (writeLock) {
+            partitions.forEach((owner, partition) -> {
+                Long changes = counters.get(owner);
+                if (changes != null) {
+                    partition.changes = changes;
+                    partition.committedHere = committed.getOrDefault(owner, 0L);
+                }
+            });
+        }
+        ready = true;
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        rebuildTimer.record(elapsed);
+        log.info("Search index loaded {} todo items ({} terms) in {} ms using {} range(s)",
+                documentCount.get(), termCount.get(), elapsed.toMillis(), ranges.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /*
+     * Reloads the partitions of owners written elsewhere since their rows
+     * were read, and of owners this instance has not indexed yet. Returns
+     * the number of partitions reloaded.
+     */
+    public int reconcile() {
+        if (!ready) {
+            return 0;
+        }
+        Map<String, Long> committed = ownerChanges.committedHere();
+        Map<String, Long> counters = ownerChanges.all();
+        List<String> stale = new ArrayList<>();
+        synchronized (writeLock) {
+            counters.forEach((owner, changes) -> {
+                Partition partition = partitions.get(owner);
+                if (partition == null || !partition.isCurrent(changes, committed.getOrDefault(owner, 0L))) {
+                    stale.add(owner);
+                }
+            });
+        }
+        for (String owner : stale) {
+            reload(owner, counters.get(owner), committed.getOrDefault(owner, 0L));
+        }
+        reloads.increment(stale.size());
+        return stale.size();
+    }
+
+    private void reload(String ownerId, long changes, long committedHere) {
+        List<TodoChange> arrived = new ArrayList<>();
+        synchronized (writeLock) {
+            reloading.put(ownerId, arrived);
+        }
+        try {
+            /* Live rows first: an item archived in between is then read twice rather than missed. */
+            List<TodoView> rows = new ArrayList<>(repository.findViewsByOwner(ownerId));
+            rows.addAll(archive.findViewsByOwner(ownerId));
+            List<String[]> terms = new ArrayList<>(rows.size());
+            for (TodoView row : rows) {
+                terms.add(Tokenizer.terms(row.description()));
+            }
+            synchronized (writeLock) {
+                Partition fresh = new Partition();
+                fresh.changes = changes;
+                fresh.committedHere = committedHere;
+                for (int i = 0; i < rows.size(); i++) {
+                    TodoView row = rows.get(i);
+                    if (!fresh.docs.containsKey(row.id())) {
+                        put(fresh, row.id(), null, newDoc(fresh, terms.get(i), row.status(), row.dueAt()));
+                    }
+                }
+                for (TodoChange change : arrived) {
+                    apply(fresh, change);
+                }
+                Partition old = partitions.put(ownerId, fresh);
+                if (old != null) {
+                    documentCount.addAndGet(-old.docs.size());
+                    termCount.addAndGet(-old.dictionary.size());
+                }
+            }
+        } finally {
+            synchronized (writeLock) {
+                reloading.remove(ownerId);
+            }
+        }
+    }
+
+    private void addRanges(List<CompletableFuture<Void>> ranges, long maxId, RangeQuery query) {
+        long span = Math.max(1, Math.ceilDiv(maxId, parallelism));
+        for (long from = 0; from < maxId; from += span) {
+            long after = from;
+            long to = Math.min(maxId, from + span);
+            ranges.add(CompletableFuture.runAsync(() -> loadRange(query, after, to), executor));
+        }
+    }
+
+    private void loadRange(RangeQuery query, long afterId, long toId) {
+        List<TodoView> rows;
+        do {
+            rows = query.find(afterId, toId, Limit.of(chunkSize));
+            if (rows.isEmpty()) {
+                break;
+            }
+            List<String[]> terms = new ArrayList<>(rows.size());
+            for (TodoView row : rows) {
+                terms.add(Tokenizer.terms(row.description()));
+            }
+            synchronized (writeLock) {
+                for (int i = 0; i < rows.size(); i++) {
+                    TodoView row = rows.get(i);
+                    Partition partition = partition(row.ownerId());
+                    if (!partition.docs.containsKey(row.id())) {
+                        put(partition, row.id(), null, newDoc(partition, terms.get(i), row.status(), row.dueAt()));
+                    }
+                }
+            }
+            afterId = rows.get(rows.size() - 1).id();
+        } while (rows.size() == chunkSize);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        synchronized (writeLock) {
+            for (TodoChange change : event.changes()) {
+                String ownerId = change.after().ownerId();
+                apply(partition(ownerId), change);
+                List<TodoChange> arrived = reloading.get(ownerId);
+                if (arrived != null) {
+                    arrived.add(change);
+                }
+            }
+        }
+    }
+
+    /* Must hold writeLock. An item never changes owner. */
+    private void apply(Partition partition, TodoChange change) {
+        TodoSnapshot after = change.after();
+        Doc old = partition.docs.get(after.id());
+        boolean sameText = old != null
+                && change.before() != null
+                && Objects.equals(change.before().description(), after.description());
+        /*
+         * Status-only changes keep the indexed terms: a set-based past-due
+         * update may carry a description read before a concurrent edit.
+         */
+        Doc doc = sameText
+                ? new Doc(old.terms(), after.status(), millis(after.dueAt()))
+                : newDoc(partition, Tokenizer.terms(after.description()), after.status(), after.dueAt());
+        put(partition, after.id(), old, doc);
+    }
+
+    /* Must hold writeLock. */
+    private Partition partition(String ownerId) {
+        return partitions.computeIfAbsent(ownerId, owner -> new Partition());
+    }
+
+    /* Must hold writeLock. */
+    private void put(Partition partition, long id, Doc old, Doc doc) {
+        partition.docs.put(id, doc);
+        if (old == null) {
+            for (String term : doc.terms()) {
+                postings(partition, term).add(id);
+            }
+            partition.totalTerms += doc.terms().length;
+            documentCount.incrementAndGet();
+            return;
+        }
+        if (old.terms() == doc.terms()) {
+            return;
+        }
+        for (String term : doc.terms()) {
+            if (!old.has(term)) {
+                postings(partition, term).add(id);
+            }
+        }
+        for (String term : old.terms()) {
+            if (!doc.has(term)) {
+                retract(partition, term);
+            }
+        }
+        partition.totalTerms += doc.terms().length - old.terms().length;
+    }
+
+    /* Must hold writeLock. Canonical term instances are shared by the partition's documents. */
+    private Doc newDoc(Partition partition, String[] terms, TodoStatus status, OffsetDateTime dueAt) {
+        for (int i = 0; i < terms.length; i++) {
+            terms[i] = postings(partition, terms[i]).term();
+        }
+        return new Doc(terms, status, millis(dueAt));
+    }
+
+    /* Must hold writeLock. */
+    private Postings postings(Partition partition, String term) {
+        Postings postings = partition.dictionary.get(term);
+        if (postings == null) {
+            postings = new Postings(term);
+            partition.dictionary.put(term, postings);
+            termCount.incrementAndGet();
+        }
+        return postings;
+    }
+
+    /* Must hold writeLock. */
+    private void retract(Partition partition, String term) {
+        Postings postings = partition.dictionary.get(term);
+        postings.markStale();
+        if (postings.needsCompaction()) {
+            postings.compact(id -> {
+                Doc doc = partition.docs.get(id);
+                return doc != null && doc.has(term);
+            });
+            if (postings.isEmpty()) {
+                partition.dictionary.remove(term);
+                termCount.decrementAndGet();
+            }
+        }
+    }
+
+    /*
+     * Every query word must prefix some term of a document. Candidates come
+     * from the word with the fewest postings in the caller's partition;
+     * each is then checked and scored against its own terms, which also
+     * discards stale postings.
+     */
+    public List<SearchHit> search(TodoSearchQuery query) {
+        if (!ready) {
+            throw new SearchIndexLoadingException();
+        }
+        String[] words = Tokenizer.terms(query.text());
+        if (words.length == 0) {
+            throw new IllegalArgumentException("Search text must contain at least one letter or digit");
+        }
+
+        Partition partition = partitions.get(query.ownerId());
+        if (partition == null) {
+            return List.of();
+        }
+        int documents = Math.max(1, partition.docs.size());
+        double averageLength = Math.max(1.0, (double) partition.totalTerms / documents);
+        Map<String, Double> idf = new HashMap<>();
+        List<Postings> driver = null;
+        long driverSize = Long.MAX_VALUE;
+        for (String word : words) {
+            List<Postings> matching = new ArrayList<>(partition.dictionary.subMap(word, true, word + Character.MAX_VALUE, false)
+                    .values());
+            if (matching.isEmpty()) {
+                return List.of();
+            }
+            long size = 0;
+            for (Postings postings : matching) {
+                int df = postings.documentFrequency();
+                size += df;
+                idf.put(postings.term(), Math.log(1 + (documents - df + 0.5) / (df + 0.5)));
+            }
+            if (size < driverSize) {
+                driver = matching;
+                driverSize = size;
+            }
+        }
+
+        Filter filter = new Filter(query);
+        PriorityQueue<SearchHit> top = new PriorityQueue<>(query.limit() + 1, TodoSearchIndex::worstFirst);
+        /* Postings can list an id more than once (prefix matches, terms re-added before compaction). */
+        Set<Long> seen = new HashSet<>();
+        for (Postings postings : driver) {
+            postings.forEach(id -> {
+                if (!seen.add(id)) {
+                    return;
+                }
+                Doc doc = partition.docs.get(id);
+                if (doc == null || !filter.test(doc)) {
+                    return;
+                }
+                double score = score(doc, words, idf, averageLength);
+                if (score == 0) {
+                    return;
+                }
+                /* Most candidates of a common word lose to the current worst hit; skip them without allocating. */
+                SearchHit worst = top.size() == query.limit() ? top.peek() : null;
+                if (worst != null && (score < worst.score() || score == worst.score() && id > worst.id())) {
+                    return;
+                }
+                top.add(new SearchHit(id, score));
+                if (top.size() > query.limit()) {
+                    top.poll();
+                }
+            });
+        }
+        List<SearchHit> hits = new ArrayList<>(top);
+        hits.sort((a, b) -> worstFirst(b, a));
+        return hits;
+    }
+
+    /* Lower score first; among equal scores the newer (higher) id is worse. */
+    private static int worstFirst(SearchHit a, SearchHit b) {
+        int byScore = Double.compare(a.score(), b.score());
+        return byScore != 0 ? byScore : Long.compare(b.id(), a.id());
+    }
+
+    /* BM25 with term frequency 1; 0 when some word matches no term. */
+    private static double score(Doc doc, String[] words, Map<String, Double> idf, double averageLength) {
+        double saturation = (K1 + 1) / (1 + K1 * (1 - B + B * doc.terms().length / averageLength));
+        double score = 0;
+        for (String word : words) {
+            double best = 0;
+            for (String term : doc.terms()) {
+                if (term.startsWith(word)) {
+                    double weight = idf.getOrDefault(term, 0.0) * (term.length() == word.length() ? 1 : PREFIX_WEIGHT);
+                    best = Math.max(best, weight);
+                }
+            }
+            if (best == 0) {
+                return 0;
+            }
+            score += best * saturation;
+        }
+        return score;
+    }
+
+    private static long millis(OffsetDateTime dateTime) {
+        return dateTime == null ? Long.MIN_VALUE : dateTime.toInstant().toEpochMilli();
+    }
+
+    private static final class Filter {
+
+        private final Set<TodoStatus> statuses;
+        private final long dueFrom;
+        private final long dueTo;
+
+        Filter(TodoSearchQuery query) {
+            this.statuses = query.statuses() == null || query.statuses().isEmpty() ? null : Set.copyOf(query.statuses());
+            this.dueFrom = query.dueFrom() == null ? Long.MIN_VALUE : millis(query.dueFrom());
+            this.dueTo = query.dueTo() == null ? Long.MAX_VALUE : millis(query.dueTo());
+        }
+
+        boolean test(Doc doc) {
+            return (statuses == null || statuses.contains(doc.status()))
+                    && doc.dueAtMillis() >= dueFrom
+                    && doc.dueAtMillis() < dueTo;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.todo_service.service.search;
+
+import com.example.todo_service.domain.TodoStatus;
+
+import java.time.OffsetDateTime;
+import java.util.Set;
+
+/*
+ * Free text plus the same owner, status and due-date filters as the
+ * paginated listing. The owner is required; null or empty status and
+ * due-date filters match everything. dueFrom is inclusive, dueTo
+ * exclusive.
+ */
+public record TodoSearchQuery(
+        String ownerId,
+        String text,
+        Set<TodoStatus> statuses,
+        OffsetDateTime dueFrom,
+        OffsetDateTime dueTo,
+        int limit
+) {
+}
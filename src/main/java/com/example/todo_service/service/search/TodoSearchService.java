@@ -0,0 +1,55 @@
+package com.example.todo_service.service.search;
+
+import com.example.todo_service.repository.ArchivedTodoItemRepository;
+import com.example.todo_service.repository.TodoItemRepository;
+import com.example.todo_service.repository.TodoView;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class TodoSearchService {
+
+    private final TodoSearchIndex index;
+    private final TodoItemRepository repository;
+    private final ArchivedTodoItemRepository archive;
+
+    public TodoSearchService(TodoSearchIndex index, TodoItemRepository repository, ArchivedTodoItemRepository archive) {
+        this.index = index;
+        this.repository = repository;
+        this.archive = archive;
+    }
+
+    /*
+     * Ranks in memory, then loads only the hits, in one query, and returns
+     * them best first. Hits missing from todo_items are looked up in the
+     * archive with a second query.
+     */
+    @Transactional(readOnly = true)
+    public List<TodoView> search(TodoSearchQuery query) {
+        List<SearchHit> hits = index.search(query);
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = hits.stream().map(SearchHit::id).toList();
+        Map<Long, TodoView> rows = repository.findViewsByIdIn(ids)
+                .stream()
+                .collect(Collectors.toMap(TodoView::id, Function.identity(), (first, second) -> first, HashMap::new));
+        if (rows.size() < ids.size()) {
+            List<Long> missing = ids.stream()
+                    .filter(id -> !rows.containsKey(id))
+                    .toList();
+            archive.findViewsByIdIn(missing).forEach(view -> rows.put(view.id(), view));
+        }
+        return hits.stream()
+                .map(hit -> rows.get(hit.id()))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
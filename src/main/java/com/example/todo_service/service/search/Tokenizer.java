@@ -0,0 +1,37 @@
+package com.example.todo_service.service.search;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/*
+ * Splits text into lower-case words on anything that is not a letter or a
+ * digit, with accents removed, so "Café-Menü" becomes [cafe, menu]. Used for
+ * both descriptions and queries.
+ */
+final class Tokenizer {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private Tokenizer() {
+    }
+
+    /* Distinct terms in order of first appearance. */
+    static String[] terms(String text) {
+        if (text == null || text.isBlank()) {
+            return new String[0];
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        Set<String> terms = new LinkedHashSet<>();
+        for (String term : SEPARATORS.split(folded)) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms.toArray(String[]::new);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.todo_service.service.stats;
+
+import java.time.Duration;
+
+/*
+ * Non-overlapping windows for the due dates of open items, relative to the
+ * time the statistics are read.
+ */
+public enum DueWindow {
+    OVERDUE(Duration.ZERO),
+    NEXT_HOUR(Duration.ofHours(1)),
+    NEXT_DAY(Duration.ofDays(1)),
+    NEXT_WEEK(Duration.ofDays(7)),
+    NEXT_MONTH(Duration.ofDays(30)),
+    LATER(null);
+
+    private final Duration end;
+
+    DueWindow(Duration end) {
+        this.end = end;
+    }
+
+    /* Exclusive upper bound measured from now; null for LATER. */
+    public Duration end() {
+        return end;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.todo_service.service.stats;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/*
+ * Log-bucketed histogram of durations in seconds. Bucket i (i >= 1) holds
+ * values in [GAMMA^(i-1), GAMMA^i), so every quantile is within about 1% of
+ * the true value however many samples are recorded. Unlike a decaying
+ * timer histogram it supports removal, which lets a completion that is
+ * undone be taken back out. Only non-empty buckets are held, so the
+ * sketch of an owner with few completions stays small.
+ */
+final class LatencySketch {
+
+    private static final double GAMMA = 1.02;
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    /* GAMMA^1200 seconds is several centuries; anything longer is clamped. */
+    private static final int BUCKETS = 1200;
+
+    private final ConcurrentSkipListMap<Integer, Long> counts = new ConcurrentSkipListMap<>();
+
+    void add(Duration latency, long delta) {
+        counts.merge(index(latency.toSeconds()), delta, (current, change) -> current + change == 0 ? null : current + change);
+    }
+
+    long count() {
+        long total = 0;
+        for (long count : counts.values()) {
+            total += Math.max(0, count);
+        }
+        return total;
+    }
+
+    /*
+     * Nearest-rank quantile over the current counts, or null when empty.
+     * Counts can dip below zero while a removal races its matching add;
+     * those buckets are read as empty.
+     */
+    Duration quantile(double q, long total) {
+        if (total == 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long seen = 0;
+        for (Map.Entry<Integer, Long> bucket : counts.entrySet()) {
+            seen += Math.max(0, bucket.getValue());
+            if (seen >= rank) {
+                return value(bucket.getKey());
+            }
+        }
+        return value(BUCKETS);
+    }
+
+    private static int index(long seconds) {
+        if (seconds < 1) {
+            return 0;
+        }
+        return Math.min(BUCKETS, 1 + (int) (Math.log(seconds) / LOG_GAMMA));
+    }
+
+    /* Geometric middle of the bucket. */
+    private static Duration value(int index) {
+        if (index == 0) {
+            return Duration.ZERO;
+        }
+        return Duration.ofSeconds(Math.round(Math.pow(GAMMA, index - 0.5)));
+    }
+}
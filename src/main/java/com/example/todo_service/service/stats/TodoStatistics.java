@@ -0,0 +1,218 @@
+package com.example.todo_service.service.stats;
+
+import com.example.todo_service.domain.TodoSnapshot;
+import com.example.todo_service.domain.TodoStatus;
+import com.example.todo_service.repository.ArchivedTodoItemRepository;
+import com.example.todo_service.repository.TodoItemRepository;
+import com.example.todo_service.repository.TodoView;
+import com.example.todo_service.service.event.TodoChange;
+import com.example.todo_service.service.event.TodoChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/*
+ * Aggregates over each owner's todo items, archived ones included, kept
+ * current from committed change events so that reading them never touches
+ * the database: every change retracts the item's "before" state and
+ * applies its "after" state to the owner's tally.
+ *
+ * reconcile() rebuilds the aggregates from a full scan and swaps them in,
+ * correcting any drift (missed events, races between writers). Events that
+ * arrive during the scan are replayed onto the new aggregates before the
+ * swap; one that committed just before the scan started can be counted
+ * twice until the next reconciliation.
+ */
+@Service
+public class TodoStatistics {
+
+    private final TodoItemRepository repository;
+    private final ArchivedTodoItemRepository archive;
+    private final Timer reconcileTimer;
+    private final AtomicLong drift = new AtomicLong();
+
+    private static final Tally EMPTY = new Tally();
+
+    private final Object lock = new Object();
+    private volatile Map<String, Tally> tallies = new ConcurrentHashMap<>();
+    /* guarded by lock; non-null while a reconciliation is scanning */
+    private List<TodoChange> pending;
+    private volatile OffsetDateTime reconciledAt;
+
+    public TodoStatistics(
+            TodoItemRepository repository,
+            ArchivedTodoItemRepository archive,
+            MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.archive = archive;
+        this.reconcileTimer = Timer.builder("todo.stats.reconcile")
+                .description("Duration of rebuilding the todo statistics from the database")
+                .register(meterRegistry);
+        Gauge.builder("todo.stats.drift", drift, AtomicLong::get)
+                .description("Items the incremental statistics were off by at the last reconciliation")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTodoChanged(TodoChangedEvent event) {
+        synchronized (lock) {
+            Map<String, Tally> current = tallies;
+            for (TodoChange change : event.changes()) {
+                apply(current, change);
+            }
+            if (pending != null) {
+                pending.addAll(event.changes());
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void reconcile() {
+        long start = System.nanoTime();
+        synchronized (lock) {
+            pending = new ArrayList<>();
+        }
+        Map<String, Tally> fresh = new ConcurrentHashMap<>();
+        boolean scanned = false;
+        try (Stream<TodoView> rows = Stream.concat(repository.streamAllViews(), archive.streamAllViews())) {
+            rows.forEach(row -> fresh.computeIfAbsent(row.ownerId(), owner -> new Tally()).add(row.snapshot(), 1));
+            scanned = true;
+        } finally {
+            synchronized (lock) {
+                if (scanned) {
+                    pending.forEach(change -> apply(fresh, change));
+                    drift.set(distance(fresh, tallies));
+                    tallies = fresh;
+                }
+                pending = null;
+            }
+        }
+        reconciledAt = OffsetDateTime.now();
+        reconcileTimer.record(Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /* An item never changes owner, so before and after land in the same tally. */
+    private static void apply(Map<String, Tally> tallies, TodoChange change) {
+        tallies.computeIfAbsent(change.after().ownerId(), owner -> new Tally()).apply(change);
+    }
+
+    private static long distance(Map<String, Tally> fresh, Map<String, Tally> stale) {
+        Set<String> owners = new HashSet<>(fresh.keySet());
+        owners.addAll(stale.keySet());
+        long distance = 0;
+        for (String owner : owners) {
+            distance += fresh.getOrDefault(owner, EMPTY).distanceTo(stale.getOrDefault(owner, EMPTY));
+        }
+        return distance;
+    }
+
+    public TodoStats snapshot(String ownerId) {
+        Tally current = tallies.getOrDefault(ownerId, EMPTY);
+        Map<TodoStatus, Long> byStatus = new EnumMap<>(TodoStatus.class);
+        for (TodoStatus status : TodoStatus.values()) {
+            byStatus.put(status, Math.max(0, current.count(status)));
+        }
+
+        long nowMinute = Math.floorDiv(System.currentTimeMillis(), 60_000);
+        Map<DueWindow, Long> byDueWindow = new EnumMap<>(DueWindow.class);
+        long counted = 0;
+        for (DueWindow window : DueWindow.values()) {
+            long upToEnd = window.end() == null
+                    ? byStatus.get(TodoStatus.NOT_DONE)
+                    : current.openDueBefore(nowMinute + window.end().toMinutes());
+            byDueWindow.put(window, Math.max(0, upToEnd - counted));
+            counted = Math.max(counted, upToEnd);
+        }
+
+        long completed = current.completion.count();
+        return new TodoStats(
+                byStatus,
+                byDueWindow,
+                completed,
+                current.completion.quantile(0.5, completed),
+                current.completion.quantile(0.9, completed),
+                current.completion.quantile(0.99, completed),
+                reconciledAt);
+    }
+
+    /*
+     * Open (NOT_DONE) items are counted per due minute and per due hour, so
+     * a window sum reads at most an hour of minutes at its edge plus one
+     * entry per hour, rather than one per item.
+     */
+    private static final class Tally {
+
+        private final AtomicLongArray byStatus = new AtomicLongArray(TodoStatus.values().length);
+        private final ConcurrentSkipListMap<Long, Long> openByMinute = new ConcurrentSkipListMap<>();
+        private final ConcurrentSkipListMap<Long, Long> openByHour = new ConcurrentSkipListMap<>();
+        private final LatencySketch completion = new LatencySketch();
+
+        void apply(TodoChange change) {
+            if (change.before() != null) {
+                add(change.before(), -1);
+            }
+            add(change.after(), 1);
+        }
+
+        void add(TodoSnapshot item, long delta) {
+            byStatus.addAndGet(item.status().ordinal(), delta);
+            if (item.status() == TodoStatus.NOT_DONE && item.dueAt() != null) {
+                long minute = Math.floorDiv(item.dueAt().toEpochSecond(), 60);
+                merge(openByMinute, minute, delta);
+                merge(openByHour, Math.floorDiv(minute, 60), delta);
+            }
+            if (item.status() == TodoStatus.DONE && item.doneAt() != null) {
+                completion.add(Duration.between(item.createdAt(), item.doneAt()), delta);
+            }
+        }
+
+        long count(TodoStatus status) {
+            return byStatus.get(status.ordinal());
+        }
+
+        /* Open items due before the start of the given epoch minute. */
+        long openDueBefore(long minute) {
+            long hour = Math.floorDiv(minute, 60);
+            return sum(openByHour.headMap(hour)) + sum(openByMinute.subMap(hour * 60, minute));
+        }
+
+        long distanceTo(Tally other) {
+            long distance = 0;
+            for (TodoStatus status : TodoStatus.values()) {
+                distance += Math.abs(count(status) - other.count(status));
+            }
+            return distance;
+        }
+
+        /* Entries that drop to zero are removed, so the maps only hold live buckets. */
+        private static void merge(ConcurrentSkipListMap<Long, Long> counts, long key, long delta) {
+            counts.merge(key, delta, (current, change) -> current + change == 0 ? null : current + change);
+        }
+
+        private static long sum(NavigableMap<Long, Long> counts) {
+            long total = 0;
+            for (long count : counts.values()) {
+                total += count;
+            }
+            return total;
+        }
+    }
+}
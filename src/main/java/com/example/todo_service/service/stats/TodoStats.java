@@ -0,0 +1,22 @@
+package com.example.todo_service.service.stats;
+
+import com.example.todo_service.domain.TodoStatus;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+/*
+ * Point-in-time statistics. Percentiles are null while nothing is done;
+ * reconciledAt is null until the first reconciliation has finished.
+ */
+public record TodoStats(
+        Map<TodoStatus, Long> byStatus,
+        Map<DueWindow, Long> openByDueWindow,
+        long completed,
+        Duration completionP50,
+        Duration completionP90,
+        Duration completionP99,
+        OffsetDateTime reconciledAt
+) {
+}
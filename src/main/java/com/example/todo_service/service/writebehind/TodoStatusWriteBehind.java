@@ -0,0 +1,540 @@
+package com.example.todo_service.service.writebehind;
+
+import com.example.todo_service.domain.TodoStatus;
+import com.example.todo_service.repository.TodoItemRepository;
+import com.example.todo_service.repository.TodoView;
+import com.example.todo_service.service.TodoService;
+import com.example.todo_service.service.event.TodoChange;
+import com.example.todo_service.service.event.TodoChangeType;
+import com.example.todo_service.service.event.TodoChangedEvent;
+import com.example.todo_service.service.exception.InvalidTodoStateException;
+import com.example.todo_service.service.exception.TodoNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Types;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * Opt-in write-behind for done / not-done. A transition is applied to an
+ * in-memory copy of the item and acknowledged at once; repeated transitions
+ * of the same id are coalesced into one pending row. Every max-lag the
+ * pending rows are written with one JDBC batch of version-guarded UPDATEs
+ * and the usual change events are published after commit.
+ *
+ * The in-memory copy is authoritative until its row is written: transitions
+ * are validated against it, and reads by id and the plain listings are
+ * overlaid with it. Each transition still bumps the version, so ETags stay
+ * unique.
+ *
+ * A row whose version moved underneath is re-read. If the only change was
+ * the past-due sweep or the deadline index flipping it to PAST_DUE, the
+ * item was marked done before it was flipped, so DONE is written over the
+ * flip; a net not-done leaves it past due. Any other writer wins, and the
+ * deferred change is dropped and counted as a conflict.
+ *
+ * Pending ids are bounded by max-pending; beyond that, for requests with
+ * If-Match, for ids claimed by the archiver and with write-behind
+ * disabled, transitions go through TodoService as before. Pending rows
+ * are written before the application context closes.
+ */
+@Component
+public class TodoStatusWriteBehind implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoStatusWriteBehind.class);
+
+    private static final String UPDATE_STATUS = """
+            UPDATE todo_items SET status = ?, done_at = ?, version = ?
+            WHERE id = ? AND version = ?
+            """;
+
+    /* base is the row as stored, current the state handed out to readers. */
+    private record Pending(TodoView base, TodoView current) {
+
+        static Pending of(TodoView stored) {
+            return new Pending(stored, stored);
+        }
+
+        /* The same transition on top of a newer stored row, with a version past it. */
+        Pending rebasedOn(TodoView stored) {
+            return new Pending(stored, new TodoView(
+                    current.id(),
+                    current.ownerId(),
+                    current.description(),
+                    current.status(),
+                    current.createdAt(),
+                    current.dueAt(),
+                    current.doneAt(),
+                    Math.max(current.version(), stored.version() + 1)));
+        }
+
+        Pending apply(String ownerId, TodoStatus target) {
+            if (ownerId != null && !ownerId.equals(current.ownerId())) {
+                throw new TodoNotFoundException(current.id());
+            }
+            if (current.status() == TodoStatus.PAST_DUE) {
+                throw new InvalidTodoStateException("Past-due items cannot be modified");
+            }
+            return new Pending(base, new TodoView(
+                    current.id(),
+                    current.ownerId(),
+                    current.description(),
+                    target,
+                    current.createdAt(),
+                    current.dueAt(),
+                    target == TodoStatus.DONE ? OffsetDateTime.now() : null,
+                    current.version() + 1));
+        }
+    }
+
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+    /* Rows taken by the running flush, readable until it has committed. */
+    private final Map<Long, Pending> inFlight = new ConcurrentHashMap<>();
+    /* Entries in pending and inFlight per owner, so listings need not scan them. */
+    private final Map<String, Integer> entriesByOwner = new ConcurrentHashMap<>();
+    /* Ids being moved to the archive; deferring a transition for them would lose it. */
+    private final Set<Long> archiving = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final TodoService service;
+    private final TodoItemRepository repository;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactions;
+    private final ApplicationEventPublisher events;
+    private final TaskScheduler scheduler;
+    private final boolean enabled;
+    private final Duration maxLag;
+    private final int maxPending;
+    private final int batchSize;
+    private final Counter deferred;
+    private final Counter fallbacks;
+    private final Counter writtenRows;
+    private final Counter conflicts;
+    private final Timer flushTimer;
+
+    private volatile boolean running;
+    private ScheduledFuture<?> ticker;
+
+    public TodoStatusWriteBehind(
+            TodoService service,
+            TodoItemRepository repository,
+            JdbcTemplate jdbc,
+            PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher events,
+            TaskScheduler scheduler,
+            MeterRegistry meterRegistry,
+            @Value("${todo.write-behind.enabled:false}") boolean enabled,
+            @Value("${todo.write-behind.max-lag:PT0.5S}") Duration maxLag,
+            @Value("${todo.write-behind.max-pending:10000}") int maxPending,
+            @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}") int batchSize) {
+        if (enabled && (maxLag.isNegative() || maxLag.isZero() || maxPending < 1)) {
+            throw new IllegalArgumentException("Write-behind max-lag and max-pending must be positive");
+        }
+        this.service = service;
+        this.repository = repository;
+        this.jdbc = jdbc;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.events = events;
+        this.scheduler = scheduler;
+        this.enabled = enabled;
+        this.maxLag = maxLag;
+        this.maxPending = maxPending;
+        this.batchSize = batchSize;
+        this.deferred = Counter.builder("todo.write-behind.transitions")
+                .description("Done / not-done transitions applied in memory")
+                .register(meterRegistry);
+        this.fallbacks = Counter.builder("todo.write-behind.fallbacks")
+                .description("Transitions written synchronously because max-pending was reached")
+                .register(meterRegistry);
+        this.writtenRows = Counter.builder("todo.write-behind.rows")
+                .description("Rows written by write-behind flushes")
+                .register(meterRegistry);
+        this.conflicts = Counter.builder("todo.write-behind.conflicts")
+                .description("Deferred transitions dropped because the row changed underneath")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("todo.write-behind.flush")
+                .description("Write-behind flushes")
+                .register(meterRegistry);
+        Gauge.builder("todo.write-behind.pending", pending, Map::size)
+                .description("Items with a transition not yet written")
+                .register(meterRegistry);
+    }
+
+    /*
+     * Returns true when the transition was deferred, false when it was
+     * written synchronously.
+     */
+    public boolean markDone(String ownerId, Long id, Long expectedVersion) {
+        return transition(ownerId, id, expectedVersion, TodoStatus.DONE);
+    }
+
+    public boolean markNotDone(String ownerId, Long id, Long expectedVersion) {
+        return transition(ownerId, id, expectedVersion, TodoStatus.NOT_DONE);
+    }
+
+    /* The state readers should see for id while its transition is pending. */
+    public Optional<TodoView> pendingView(Long id) {
+        Pending entry = pending.get(id);
+        if (entry == null) {
+            entry = inFlight.get(id);
+        }
+        return Optional.ofNullable(entry).map(Pending::current);
+    }
+
+    public boolean hasPending(String ownerId) {
+        return entriesByOwner.containsKey(ownerId);
+    }
+
+    /*
+     * Applies pending transitions of ownerId to a listing ordered by id.
+     * onlyStatus, when given, is the status the listing was filtered by.
+     */
+    public List<TodoView> overlay(String ownerId, List<TodoView> rows, TodoStatus onlyStatus) {
+        if (!hasPending(ownerId)) {
+            return rows;
+        }
+        Map<Long, TodoView> overlaid = new HashMap<>();
+        inFlight.forEach((id, entry) -> collect(overlaid, ownerId, entry));
+        pending.forEach((id, entry) -> collect(overlaid, ownerId, entry));
+        if (overlaid.isEmpty()) {
+            return rows;
+        }
+        List<TodoView> merged = new ArrayList<>(rows.size() + overlaid.size());
+        for (TodoView row : rows) {
+            TodoView current = overlaid.remove(row.id());
+            merged.add(current != null ? current : row);
+        }
+        merged.addAll(overlaid.values());
+        return merged.stream()
+                .filter(view -> onlyStatus == null || view.status() == onlyStatus)
+                .sorted(Comparator.comparing(TodoView::id))
+                .toList();
+    }
+
+    /*
+     * Returns the ids that have no transition pending and refuses to defer
+     * transitions for them until the calling transaction completes. The
+     * check and the claim run inside pending.compute, so a transition of
+     * the same id either is pending before the claim or sees it.
+     */
+    public List<Long> claimForArchive(Collection<Long> ids) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Archive claims need a transaction");
+        }
+        List<Long> claimed = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            pending.compute(id, (key, current) -> {
+                if (current == null && !inFlight.containsKey(key) && archiving.add(key)) {
+                    claimed.add(key);
+                }
+                return current;
+            });
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                claimed.forEach(archiving::remove);
+            }
+        });
+        return claimed;
+    }
+
+    /*
+     * Writes whatever is pending for ids. Callers about to write these
+     * items directly do so first, so the direct write does not turn the
+     * deferred one into a conflict.
+     */
+    public void settle(Collection<Long> ids) {
+        if (ids != null && ids.stream().anyMatch(id -> id != null && (pending.containsKey(id) || inFlight.containsKey(id)))) {
+            flush(ids);
+        }
+    }
+
+    /* Writes everything pending; returns the number of rows written. */
+    public int flush() {
+        return flush(null);
+    }
+
+    @Override
+    public void start() {
+        if (enabled) {
+            ticker = scheduler.scheduleWithFixedDelay(this::flushQuietly, maxLag);
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (ticker != null) {
+            ticker.cancel(false);
+        }
+        try {
+            int written = flush();
+            if (written > 0) {
+                log.info("Wrote {} pending status change(s) on shutdown", written);
+            }
+        } catch (RuntimeException e) {
+            log.error("Lost {} pending status change(s) on shutdown", pending.size(), e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /* Stopped after the web server has drained and before storage compaction. */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private boolean transition(String ownerId, Long id, Long expectedVersion, TodoStatus target) {
+        if (!enabled || expectedVersion != null
+                || (!pending.containsKey(id) && pending.size() >= maxPending)) {
+            if (enabled && expectedVersion == null) {
+                fallbacks.increment();
+            }
+            return writeNow(ownerId, id, expectedVersion, target);
+        }
+        while (true) {
+            TodoView stored = pendingView(id).isPresent()
+                    ? null
+                    : repository.findViewById(id).orElse(null);
+            /* Not in todo_items: missing or archived, which the synchronous path tells apart. */
+            if (stored == null && pendingView(id).isEmpty()) {
+                return writeNow(ownerId, id, expectedVersion, target);
+            }
+            /* Throws from apply leave the map untouched. */
+            Pending updated = pending.compute(id, (key, current) -> {
+                if (current == null && archiving.contains(key)) {
+                    return null;
+                }
+                Pending start = current != null ? current : rebase(key, stored);
+                if (start == null) {
+                    return null;
+                }
+                Pending next = start.apply(ownerId, target);
+                if (current == null) {
+                    added(next);
+                }
+                return next;
+            });
+            if (updated != null) {
+                deferred.increment();
+                return true;
+            }
+            /* Being archived: the synchronous path waits for the move and reports the outcome. */
+            if (archiving.contains(id)) {
+                return writeNow(ownerId, id, expectedVersion, target);
+            }
+            /* Otherwise the entry was written between the lookup and compute; read the row again. */
+        }
+    }
+
+    private boolean writeNow(String ownerId, Long id, Long expectedVersion, TodoStatus target) {
+        settle(List.of(id));
+        if (target == TodoStatus.DONE) {
+            service.markDone(ownerId, id, expectedVersion);
+        } else {
+            service.markNotDone(ownerId, id, expectedVersion);
+        }
+        return false;
+    }
+
+    /* A transition on a row that is being written builds on the state being written. */
+    private Pending rebase(Long id, TodoView stored) {
+        Pending writing = inFlight.get(id);
+        if (writing != null) {
+            return Pending.of(writing.current());
+        }
+        return stored == null ? null : Pending.of(stored);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Write-behind flush failed; keeping {} change(s) for the next attempt", pending.size(), e);
+        }
+    }
+
+    private int flush(Collection<Long> ids) {
+        flushLock.lock();
+        try {
+            List<Pending> batch = new ArrayList<>();
+            for (Long id : ids == null ? List.copyOf(pending.keySet()) : ids) {
+                if (id == null) {
+                    continue;
+                }
+                pending.computeIfPresent(id, (key, entry) -> {
+                    inFlight.put(key, entry);
+                    batch.add(entry);
+                    return null;
+                });
+            }
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            try {
+                return flushTimer.record(() -> transactions.execute(status -> write(batch)));
+            } catch (RuntimeException e) {
+                /* Back into pending; a newer transition keeps its state but needs this base. */
+                for (Pending entry : batch) {
+                    pending.compute(entry.base().id(), (key, newer) -> {
+                        if (newer == null) {
+                            added(entry);
+                            return entry;
+                        }
+                        return new Pending(entry.base(), newer.current());
+                    });
+                }
+                throw e;
+            } finally {
+                batch.forEach(entry -> {
+                    if (inFlight.remove(entry.base().id(), entry)) {
+                        removed(entry);
+                    }
+                });
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private int write(List<Pending> batch) {
+        List<TodoChange> done = new ArrayList<>();
+        List<TodoChange> notDone = new ArrayList<>();
+        List<Pending> retries = new ArrayList<>();
+        List<Long> conflicting = new ArrayList<>();
+        for (Pending entry : update(batch, done, notDone)) {
+            TodoView stored = repository.findViewById(entry.base().id()).orElse(null);
+            if (stored == null || !onlyMarkedPastDue(entry.base(), stored)) {
+                conflicting.add(entry.base().id());
+            } else if (entry.current().status() == TodoStatus.DONE) {
+                retries.add(entry.rebasedOn(stored));
+            }
+        }
+        for (Pending retry : update(retries, done, notDone)) {
+            conflicting.add(retry.base().id());
+        }
+        publish(TodoChangeType.DONE, done);
+        publish(TodoChangeType.NOT_DONE, notDone);
+
+        int written = done.size() + notDone.size();
+        writtenRows.increment(written);
+        if (!conflicting.isEmpty()) {
+            conflicts.increment(conflicting.size());
+            log.warn("Dropped deferred status change(s) of {} item(s) changed by another writer: {}",
+                    conflicting.size(), conflicting);
+        }
+        return written;
+    }
+
+    /* Runs the batch and returns the entries whose row had moved on. */
+    private List<Pending> update(List<Pending> batch, List<TodoChange> done, List<TodoChange> notDone) {
+        if (batch.isEmpty()) {
+            return List.of();
+        }
+        int[][] counts = jdbc.batchUpdate(UPDATE_STATUS, batch, batchSize, (ps, entry) -> {
+            TodoView current = entry.current();
+            ps.setString(1, current.status().name());
+            ps.setObject(2, current.doneAt(), Types.TIMESTAMP_WITH_TIMEZONE);
+            ps.setLong(3, current.version());
+            ps.setLong(4, current.id());
+            ps.setLong(5, entry.base().version());
+        });
+
+        List<Pending> conflicting = new ArrayList<>();
+        int index = 0;
+        for (int[] chunk : counts) {
+            for (int count : chunk) {
+                Pending entry = batch.get(index++);
+                if (count == 0) {
+                    conflicting.add(entry);
+                    continue;
+                }
+                TodoChange change = TodoChange.of(entry.base().snapshot(), entry.current().snapshot());
+                (entry.current().status() == TodoStatus.DONE ? done : notDone).add(change);
+                rebaseNewer(entry);
+            }
+        }
+        return conflicting;
+    }
+
+    /* The bulk flip changes status and version and nothing else. */
+    private static boolean onlyMarkedPastDue(TodoView base, TodoView stored) {
+        return base.status() == TodoStatus.NOT_DONE
+                && stored.status() == TodoStatus.PAST_DUE
+                && stored.version() == base.version() + 1
+                && stored.ownerId().equals(base.ownerId())
+                && stored.description().equals(base.description())
+                && Objects.equals(stored.dueAt(), base.dueAt())
+                && stored.doneAt() == null;
+    }
+
+    /*
+     * A transition made while entry was in flight is based on entry's state;
+     * a re-applied entry was written with another version, so move it over.
+     */
+    private void rebaseNewer(Pending written) {
+        Pending original = inFlight.get(written.base().id());
+        if (original == null || original.current().version() == written.current().version()) {
+            return;
+        }
+        pending.computeIfPresent(written.base().id(), (id, newer) ->
+                newer.base().version() == original.current().version()
+                        ? newer.rebasedOn(written.current())
+                        : newer);
+    }
+
+    private void publish(TodoChangeType type, List<TodoChange> changes) {
+        if (!changes.isEmpty()) {
+            events.publishEvent(new TodoChangedEvent(type, changes));
+        }
+    }
+
+    /* Counted before the entry is visible and uncounted after it is gone, so hasPending errs towards true. */
+    private void added(Pending entry) {
+        entriesByOwner.merge(entry.current().ownerId(), 1, Integer::sum);
+    }
+
+    private void removed(Pending entry) {
+        entriesByOwner.computeIfPresent(entry.current().ownerId(), (owner, count) -> count == 1 ? null : count - 1);
+    }
+
+    private static void collect(Map<Long, TodoView> overlaid, String ownerId, Pending entry) {
+        TodoView current = entry.current();
+        if (current.ownerId().equals(ownerId)) {
+            overlaid.put(current.id(), current);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+-- Baseline schema, equivalent to what ddl-auto generated for TodoItem.
+CREATE TABLE todo_items (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    description VARCHAR(255)                      NOT NULL,
+    status      ENUM ('DONE', 'NOT_DONE', 'PAST_DUE') NOT NULL,
+    created_at  TIMESTAMP(6) WITH TIME ZONE       NOT NULL,
+    due_at      TIMESTAMP(6) WITH TIME ZONE       NOT NULL,
+    done_at     TIMESTAMP(6) WITH TIME ZONE,
+    CONSTRAINT pk_todo_items PRIMARY KEY (id)
+);
@@ -0,0 +1,8 @@
+-- Past-due sweep: findByStatusAndDueAtBefore / findIdsByStatusAndDueAtBefore.
+CREATE INDEX idx_todo_items_status_due_at ON todo_items (status, due_at);
+
+-- Listing by status (findByStatus) and keyset pages filtered by status.
+CREATE INDEX idx_todo_items_status_id ON todo_items (status, id);
+
+-- Keyset pages ordered by due date.
+CREATE INDEX idx_todo_items_due_at_id ON todo_items (due_at, id);
@@ -0,0 +1,5 @@
+-- Batch-friendly id generation (pooled optimizer, allocationSize = 50).
+-- The id column keeps its identity default for rows inserted outside JPA.
+-- Only in-memory databases existed before this version, so starting at 1
+-- cannot collide with existing ids.
+CREATE SEQUENCE todo_items_seq START WITH 1 INCREMENT BY 50;
@@ -0,0 +1,2 @@
+-- Optimistic locking / ETag source for TodoItem.
+ALTER TABLE todo_items ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,23 @@
+-- Owner (tenant) of each item. Rows written before owners existed belong
+-- to the default owner.
+ALTER TABLE todo_items ADD COLUMN owner_id VARCHAR(64) DEFAULT 'default' NOT NULL;
+
+-- Every listing is scoped to one owner, so the owner leads each index and a
+-- query only walks that owner's rows.
+DROP INDEX idx_todo_items_status_id;
+DROP INDEX idx_todo_items_due_at_id;
+
+-- Unfiltered listing and pages ordered by id.
+CREATE INDEX idx_todo_items_owner_id ON todo_items (owner_id, id);
+
+-- Listing by status and status-filtered pages ordered by id.
+CREATE INDEX idx_todo_items_owner_status_id ON todo_items (owner_id, status, id);
+
+-- Per-owner past-due sweep.
+CREATE INDEX idx_todo_items_owner_status_due_at ON todo_items (owner_id, status, due_at);
+
+-- Pages ordered by due date.
+CREATE INDEX idx_todo_items_owner_due_at_id ON todo_items (owner_id, due_at, id);
+
+-- idx_todo_items_status_due_at stays: the sweep uses it to find the owners
+-- with overdue items, and the deadline index reloads through it.
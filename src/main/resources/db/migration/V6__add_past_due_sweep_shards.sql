@@ -0,0 +1,21 @@
+-- The past-due sweep is split into 64 shards by id. The shard is computed
+-- by the database so every writer gets it for free.
+ALTER TABLE todo_items ADD COLUMN sweep_shard INTEGER GENERATED ALWAYS AS (MOD(id, 64));
+
+-- One shard's overdue rows, oldest deadline first. Replaces the per-owner
+-- sweep index.
+DROP INDEX idx_todo_items_owner_status_due_at;
+CREATE INDEX idx_todo_items_sweep_shard ON todo_items (sweep_shard, status, due_at);
+
+-- Which instance is sweeping (or has just swept) each shard. A shard is
+-- free once leased_until has passed.
+CREATE TABLE past_due_sweep_leases (
+    shard        INTEGER                     NOT NULL,
+    holder       VARCHAR(128),
+    leased_until TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_past_due_sweep_leases PRIMARY KEY (shard)
+);
+
+INSERT INTO past_due_sweep_leases (shard, leased_until)
+SELECT X - 1, TIMESTAMP WITH TIME ZONE '1970-01-01 00:00:00+00'
+FROM SYSTEM_RANGE(1, 64);
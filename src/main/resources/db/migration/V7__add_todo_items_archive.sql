@@ -0,0 +1,22 @@
+-- DONE and PAST_DUE items past the archive age are moved here, out of
+-- todo_items and its indexes. Rows keep their id and version and are
+-- never changed again.
+CREATE TABLE todo_items_archive (
+    id          BIGINT                                NOT NULL,
+    owner_id    VARCHAR(64)                           NOT NULL,
+    description VARCHAR(255)                          NOT NULL,
+    status      ENUM ('DONE', 'NOT_DONE', 'PAST_DUE') NOT NULL,
+    created_at  TIMESTAMP(6) WITH TIME ZONE           NOT NULL,
+    due_at      TIMESTAMP(6) WITH TIME ZONE           NOT NULL,
+    done_at     TIMESTAMP(6) WITH TIME ZONE,
+    version     BIGINT                                NOT NULL,
+    archived_at TIMESTAMP(6) WITH TIME ZONE           NOT NULL,
+    CONSTRAINT pk_todo_items_archive PRIMARY KEY (id)
+);
+
+-- includeDone listings and exports merge the owner's archived rows by id.
+CREATE INDEX idx_todo_items_archive_owner_id ON todo_items_archive (owner_id, id);
+
+-- Archiver: DONE items by completion time. PAST_DUE items are found through
+-- idx_todo_items_status_due_at.
+CREATE INDEX idx_todo_items_status_done_at ON todo_items (status, done_at);
@@ -0,0 +1,13 @@
+-- Committed write transactions per owner, bumped by the transaction that
+-- writes the owner's items. Every instance reads the same numbers, so
+-- caches and listing ETags notice writes made elsewhere. Counts start at
+-- a random value, so a recreated database does not repeat old tags.
+CREATE TABLE todo_owner_changes (
+    owner_id VARCHAR(64) NOT NULL,
+    changes  BIGINT      NOT NULL,
+    CONSTRAINT pk_todo_owner_changes PRIMARY KEY (owner_id)
+);
+
+INSERT INTO todo_owner_changes (owner_id, changes)
+SELECT owner_id, CAST(RAND() * 1000000000000 AS BIGINT)
+FROM (SELECT owner_id FROM todo_items UNION SELECT owner_id FROM todo_items_archive);
@@ -0,0 +1,4 @@
+-- Paginated listings merge archived rows in by the page's sort key; this
+-- serves the dueAt order the way idx_todo_items_owner_due_at_id does for
+-- live rows.
+CREATE INDEX idx_todo_items_archive_owner_due_at_id ON todo_items_archive (owner_id, due_at, id);
@@ -3,13 +3,26 @@ package com.example.todo_service;
 import com.example.todo_service.domain.TodoItem;
 import com.example.todo_service.service.TodoService;
 import com.example.todo_service.domain.TodoStatus;
+import com.example.todo_service.repository.ArchivedTodoItemRepository;
 import com.example.todo_service.repository.TodoItemRepository;
+import com.example.todo_service.repository.TodoView;
 import com.example.todo_service.service.exception.InvalidTodoStateException;
+import com.example.todo_service.service.exception.TodoNotFoundException;
+import com.example.todo_service.service.exception.TodoVersionMismatchException;
+import com.example.todo_service.service.PastDueSweepResult;
+import com.example.todo_service.service.event.TodoChange;
+import com.example.todo_service.service.event.TodoChangeType;
+import com.example.todo_service.service.event.TodoChangedEvent;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.OffsetDateTime;
 import java.util.List;
@@ -18,7 +31,10 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -28,9 +44,25 @@ class TodoServiceTest {
     @Mock
     private TodoItemRepository repository;
 
-    @InjectMocks
+    @Mock
+    private ArchivedTodoItemRepository archive;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     private TodoService service;
 
+    @BeforeEach
+    void setUp() {
+        service = new TodoService(repository, archive, entityManager, events, transactionManager, 2);
+    }
+
     @Test
     void shouldCreateTodoItem() {
         // given
@@ -38,7 +70,11 @@ class TodoServiceTest {
         OffsetDateTime dueAt = OffsetDateTime.now().plusDays(1);
 
         when(repository.save(any(TodoItem.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
+                .thenAnswer(invocation -> {
+                    TodoItem saved = invocation.getArgument(0);
+                    ReflectionTestUtils.setField(saved, "id", 1L);
+                    return saved;
+                });
 
         // when
         TodoItem result = service.addTodo(description, dueAt);
@@ -48,6 +84,7 @@ class TodoServiceTest {
         assertThat(result.getStatus()).isEqualTo(TodoStatus.NOT_DONE);
         assertThat(result.getCreatedAt()).isNotNull();
         assertThat(result.getDueAt()).isEqualTo(dueAt);
+        verify(events).publishEvent(TodoChangedEvent.of(TodoChangeType.CREATED, TodoChange.of(null, result.snapshot())));
     }
 
     @Test
@@ -68,20 +105,134 @@ class TodoServiceTest {
     }
 
     @Test
-    void shouldMarkItemsAsPastDue() {
+    void shouldRejectChangesToArchivedItems() {
+        // given
+        TodoView archived = new TodoView(1L, TodoItem.DEFAULT_OWNER, "Old task", TodoStatus.DONE,
+                OffsetDateTime.now().minusDays(60), OffsetDateTime.now().minusDays(45), OffsetDateTime.now().minusDays(50), 1);
+        when(repository.findById(1L)).thenReturn(Optional.empty());
+        when(archive.findViewById(1L)).thenReturn(Optional.of(archived));
+
+        // when / then
+        assertThatThrownBy(() -> service.markNotDone(1L))
+                .isInstanceOf(InvalidTodoStateException.class)
+                .hasMessageContaining("Archived");
+        assertThatThrownBy(() -> service.markNotDone("someone-else", 1L, null))
+                .isInstanceOf(TodoNotFoundException.class);
+        verify(events, never()).publishEvent(any());
+    }
+
+    @Test
+    void shouldMarkItemsAsPastDueInChunksPerShard() {
+        // given
+        TodoView first = overdueView(1L);
+        TodoView second = overdueView(65L);
+        TodoView third = overdueView(129L);
+        TodoView fourth = overdueView(2L);
+        when(repository.findViewsBySweepShardAndStatusAndDueAtBefore(
+                anyInt(), eq(TodoStatus.NOT_DONE), any(OffsetDateTime.class), any(Limit.class)))
+                .thenReturn(List.of());
+        when(repository.findViewsBySweepShardAndStatusAndDueAtBefore(
+                eq(1), eq(TodoStatus.NOT_DONE), any(OffsetDateTime.class), any(Limit.class)))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of(third));
+        when(repository.findViewsBySweepShardAndStatusAndDueAtBefore(
+                eq(2), eq(TodoStatus.NOT_DONE), any(OffsetDateTime.class), any(Limit.class)))
+                .thenReturn(List.of(fourth));
+        when(repository.updateStatusByIds(List.of(1L, 65L), TodoStatus.NOT_DONE, TodoStatus.PAST_DUE))
+                .thenReturn(2);
+        when(repository.updateStatusByIds(List.of(129L), TodoStatus.NOT_DONE, TodoStatus.PAST_DUE))
+                .thenReturn(1);
+        when(repository.updateStatusByIds(List.of(2L), TodoStatus.NOT_DONE, TodoStatus.PAST_DUE))
+                .thenReturn(1);
+
+        // when
+        PastDueSweepResult result = service.markPastDueItems();
+
+        // then
+        assertThat(result.updatedRows()).isEqualTo(4);
+        assertThat(result.chunks()).isEqualTo(3);
+        verify(repository, times(2)).findViewsBySweepShardAndStatusAndDueAtBefore(
+                eq(1), eq(TodoStatus.NOT_DONE), any(OffsetDateTime.class), eq(Limit.of(2)));
+        verify(repository, never()).save(any(TodoItem.class));
+        verify(events).publishEvent(TodoChangedEvent.pastDue(List.of(first.snapshot(), second.snapshot())));
+        verify(events).publishEvent(TodoChangedEvent.pastDue(List.of(third.snapshot())));
+        verify(events).publishEvent(TodoChangedEvent.pastDue(List.of(fourth.snapshot())));
+    }
+
+    @Test
+    void shouldNotPublishChangeWhenTransitionIsRejected() {
+        // given
+        TodoItem item = new TodoItem(
+                "Past task",
+                OffsetDateTime.now().minusDays(1));
+        item.markPastDue();
+
+        when(repository.findById(1L))
+                .thenReturn(Optional.of(item));
+
+        // when / then
+        assertThatThrownBy(() -> service.changeDescription(1L, "New"))
+                .isInstanceOf(InvalidTodoStateException.class);
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void shouldRejectStaleExpectedVersion() {
         // given
         TodoItem item = new TodoItem(
-                "Late task",
-                OffsetDateTime.now().minusHours(1));
+                "Versioned task",
+                OffsetDateTime.now().plusDays(1));
+        ReflectionTestUtils.setField(item, "version", 3L);
 
-        when(repository.findByStatusAndDueAtBefore(eq(TodoStatus.NOT_DONE), any(OffsetDateTime.class)))
-                .thenReturn(List.of(item));
+        when(repository.findById(1L))
+                .thenReturn(Optional.of(item));
+
+        // when / then
+        assertThatThrownBy(() -> service.markDone(1L, 2L))
+                .isInstanceOf(TodoVersionMismatchException.class);
+        assertThat(item.getStatus()).isEqualTo(TodoStatus.NOT_DONE);
+    }
+
+    @Test
+    void shouldTreatItemsOfOtherOwnersAsNotFound() {
+        // given
+        TodoItem item = new TodoItem(
+                "alice",
+                "Private task",
+                OffsetDateTime.now().plusDays(1));
+
+        when(repository.findById(1L))
+                .thenReturn(Optional.of(item));
+
+        // when / then
+        assertThatThrownBy(() -> service.markDone("bob", 1L, null))
+                .isInstanceOf(TodoNotFoundException.class);
+        assertThat(item.getStatus()).isEqualTo(TodoStatus.NOT_DONE);
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void shouldOnlyPublishIdsThatWereFlippedToPastDue() {
+        // given
+        TodoView first = overdueView(1L);
+        TodoView second = overdueView(2L);
+        when(repository.findViewsByIdInAndStatus(List.of(1L, 2L), TodoStatus.NOT_DONE))
+                .thenReturn(List.of(first, second));
+        when(repository.updateStatusByIds(List.of(1L, 2L), TodoStatus.NOT_DONE, TodoStatus.PAST_DUE))
+                .thenReturn(1);
+        when(repository.findIdsByIdInAndStatus(List.of(1L, 2L), TodoStatus.PAST_DUE))
+                .thenReturn(List.of(2L));
 
         // when
-        service.markPastDueItems();
+        int updated = service.markPastDue(List.of(1L, 2L));
 
         // then
-        assertThat(item.getStatus()).isEqualTo(TodoStatus.PAST_DUE);
-        verify(repository).save(eq(item));
+        assertThat(updated).isEqualTo(1);
+        verify(events).publishEvent(TodoChangedEvent.pastDue(List.of(second.snapshot())));
+    }
+
+    private static TodoView overdueView(Long id) {
+        OffsetDateTime now = OffsetDateTime.now();
+        return new TodoView(id, TodoItem.DEFAULT_OWNER, "Task " + id, TodoStatus.NOT_DONE, now.minusDays(1), now.minusHours(1), null, 0);
     }
 }
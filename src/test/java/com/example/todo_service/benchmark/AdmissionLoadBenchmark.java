@@ -0,0 +1,93 @@
+package com.example.todo_service.benchmark;
+
+import com.example.todo_service.TodoServiceApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * One client hammering the full listing (GET /todos?includeDone=true) from
+ * many connections while a second client reads single todos at a steady
+ * rate, with admission control off and on. The interesting number is the
+ * polite client's tail latency. Not part of the regular build, run
+ * explicitly:
+ *
+ *   ./mvnw test -Dtest=AdmissionLoadBenchmark -Dbenchmark.seconds=15
+ */
+class AdmissionLoadBenchmark {
+
+    private static final int NOISY_CLIENTS = Integer.getInteger("benchmark.noisy-clients", 32);
+    private static final int POLITE_RATE = Integer.getInteger("benchmark.polite-rate", 100);
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("benchmark.seconds", 15));
+    private static final int SEED_ITEMS = Integer.getInteger("benchmark.items", 20_000);
+
+    @Test
+    void comparePoliteClientWithAndWithoutAdmission() throws Exception {
+        List<LoadDriver.Report> off = run(false);
+        List<LoadDriver.Report> on = run(true);
+
+        System.out.printf("%n=== %d noisy connections, polite client at %d req/s, %d s ===%n",
+                NOISY_CLIENTS, POLITE_RATE, DURATION.toSeconds());
+        System.out.printf("-- admission off%n%s%n%s%n", off.get(0).format(), off.get(1).format());
+        System.out.printf("-- admission on%n%s%n%s%n", on.get(0).format(), on.get(1).format());
+        assertThat(on.get(1).requests()).isPositive();
+    }
+
+    private List<LoadDriver.Report> run(boolean admission) throws Exception {
+        String[] args = {
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:admission-" + admission,
+                "--todo.admission.enabled=" + admission,
+                "--todo.admission.client-header=X-Client-Id",
+                "--todo.admission.standard.rate=10000",
+                "--todo.admission.standard.burst=10000",
+                "--logging.level.root=WARN"
+        };
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TodoServiceApplication.class)
+                .run(args)) {
+            TodoDatasetGenerator.seed(context.getBean(JdbcTemplate.class), SEED_ITEMS);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI baseUri = URI.create("http://localhost:" + port);
+
+            List<LoadDriver.Operation> noisy = LoadDriver.operations(
+                    new LoadDriver.Operation("listAll", 1, uri -> HttpRequest
+                            .newBuilder(uri.resolve("/todos?includeDone=true"))
+                            .header("X-Client-Id", "noisy")
+                            .GET()
+                            .build()));
+            List<LoadDriver.Operation> polite = LoadDriver.operations(
+                    new LoadDriver.Operation("getById", 1, uri -> HttpRequest
+                            .newBuilder(uri.resolve("/todos/" + randomId()))
+                            .header("X-Client-Id", "polite")
+                            .GET()
+                            .build()));
+
+            String label = admission ? "on" : "off";
+            CompletableFuture<LoadDriver.Report> noisyRun = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return new LoadDriver(baseUri).run("noisy " + label, noisy, NOISY_CLIENTS, DURATION);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            LoadDriver.Report politeReport = new LoadDriver(baseUri)
+                    .runAtRate("polite " + label, polite, POLITE_RATE, DURATION);
+            return List.of(noisyRun.join(), politeReport);
+        }
+    }
+
+    private static long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, SEED_ITEMS + 1);
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.todo_service.benchmark;
+
+import com.example.todo_service.TodoServiceApplication;
+import com.example.todo_service.domain.TodoStatus;
+import com.example.todo_service.repository.TodoItemRepository;
+import com.example.todo_service.service.TodoService;
+import com.example.todo_service.service.archive.TodoArchiver;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.function.IntSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * A table that is mostly history: hot-path query latency and table size
+ * before and after the archiver has moved the finished items out, and the
+ * archiver's throughput. Not part of the regular build, run explicitly:
+ *
+ *   ./mvnw test -Dtest=ArchiveTieringBenchmark -Dbenchmark.rows=1000000
+ */
+class ArchiveTieringBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+    private static final int OWNERS = 1_000;
+    private static final int SEED_CHUNK = 50_000;
+    /* File-backed, so that H2 can report the space each table takes. */
+    private static final String STORE = "./target/archive-benchmark/todo-db";
+    private static final String OWNER = "owner-7";
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = 50;
+
+    @Test
+    void compareHotTableBeforeAndAfterArchiving() throws IOException {
+        FileSystemUtils.deleteRecursively(Path.of(STORE).getParent());
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TodoServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:file:" + STORE + ";DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.main.banner-mode=off",
+                        "--todo.archive.enabled=false",
+                        "--todo.archive.batch-size=" + Integer.getInteger("benchmark.batch-size", 1000),
+                        "--logging.level.root=WARN")) {
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            TodoService service = context.getBean(TodoService.class);
+            TodoItemRepository repository = context.getBean(TodoItemRepository.class);
+            TodoArchiver archiver = context.getBean(TodoArchiver.class);
+            seed(jdbc);
+
+            System.out.printf("%n=== %,d rows, %d owners, 90%% finished more than 30 days ago ===%n", ROWS, OWNERS);
+            System.out.printf("%n-- before archiving%n");
+            run(jdbc, service, repository);
+
+            long start = System.nanoTime();
+            OffsetDateTime cutoff = OffsetDateTime.now().minusDays(30);
+            long moved = 0;
+            int batch;
+            while ((batch = archiver.archiveBatch(cutoff)) > 0) {
+                moved += batch;
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("%n-- archived %,d rows in %,d ms (%,.0f rows/s)%n",
+                    moved, elapsed / 1_000_000, moved * 1e9 / elapsed);
+            jdbc.execute("ANALYZE");
+
+            System.out.printf("%n-- after archiving%n");
+            run(jdbc, service, repository);
+            assertThat(archiver.hotRows()).isEqualTo(ROWS / 10);
+        }
+    }
+
+    /*
+     * Per 100 rows: 60 DONE and 30 PAST_DUE, all finished 31 to 365 days
+     * ago, and 10 NOT_DONE due within the next 30 days. Owners take turns
+     * by blocks of 100 ids, so every owner has the same mix. Inserted in chunks so that no
+     * single transaction has to hold the whole table.
+     */
+    private static void seed(JdbcTemplate jdbc) {
+        long start = System.nanoTime();
+        for (int from = 1; from <= ROWS; from += SEED_CHUNK) {
+            jdbc.update("""
+                    INSERT INTO todo_items (id, owner_id, description, status, created_at, due_at, done_at, version)
+                    SELECT X,
+                           'owner-' || MOD(X / 100, %d),
+                           'Benchmark task ' || X,
+                           CASE WHEN MOD(X, 100) < 60 THEN 'DONE'
+                                WHEN MOD(X, 100) < 90 THEN 'PAST_DUE'
+                                ELSE 'NOT_DONE' END,
+                           DATEADD('DAY', -400, CURRENT_TIMESTAMP),
+                           CASE WHEN MOD(X, 100) < 90 THEN DATEADD('DAY', -31 - MOD(X, 334), CURRENT_TIMESTAMP)
+                                ELSE DATEADD('MINUTE', MOD(X, 43200) + 1, CURRENT_TIMESTAMP) END,
+                           CASE WHEN MOD(X, 100) < 60 THEN DATEADD('DAY', -31 - MOD(X, 334), CURRENT_TIMESTAMP) END,
+                           0
+                    FROM SYSTEM_RANGE(?, ?)
+                    """.formatted(OWNERS), from, Math.min(ROWS, from + SEED_CHUNK - 1));
+        }
+        jdbc.execute("ANALYZE");
+        System.out.printf("Seeded %,d rows in %d ms%n", ROWS, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static void run(JdbcTemplate jdbc, TodoService service, TodoItemRepository repository) {
+        jdbc.execute("CHECKPOINT");
+        System.out.printf("todo_items %,d rows, %,d KB; todo_items_archive %,d KB%n",
+                jdbc.queryForObject("SELECT COUNT(*) FROM todo_items", Long.class),
+                jdbc.queryForObject("SELECT DISK_SPACE_USED('TODO_ITEMS')", Long.class) / 1024,
+                jdbc.queryForObject("SELECT DISK_SPACE_USED('TODO_ITEMS_ARCHIVE')", Long.class) / 1024);
+        measure("getNotDone(owner)", () -> service.getNotDone(OWNER).size());
+        measure("getAll(owner), includeDone", () -> service.getAll(OWNER).size());
+        measure("sweep chunk of one shard", () -> repository.findViewsBySweepShardAndStatusAndDueAtBefore(
+                7, TodoStatus.NOT_DONE, OffsetDateTime.now().plusDays(30), Limit.of(1000)).size());
+        measure("count(status = NOT_DONE)", () -> jdbc.queryForObject(
+                "SELECT COUNT(*) FROM todo_items WHERE status = 'NOT_DONE'", Integer.class));
+    }
+
+    private static void measure(String name, IntSupplier query) {
+        int rows = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            rows = query.getAsInt();
+        }
+        long[] nanos = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            query.getAsInt();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%-30s rows=%,7d  median=%8.2f ms  min=%8.2f ms  max=%8.2f ms%n",
+                name,
+                rows,
+                nanos[ITERATIONS / 2] / 1e6,
+                nanos[0] / 1e6,
+                nanos[ITERATIONS - 1] / 1e6);
+    }
+}
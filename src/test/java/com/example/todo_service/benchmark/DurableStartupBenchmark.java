@@ -0,0 +1,102 @@
+package com.example.todo_service.benchmark;
+
+import com.example.todo_service.TodoServiceApplication;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.File;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Startup of the durable profile on a large file-backed database: once after
+ * a clean shutdown and once after the database was killed without closing
+ * (SHUTDOWN IMMEDIATELY), checking that every committed row survived. Not
+ * part of the regular build, run explicitly:
+ *
+ *   ./mvnw test -Dtest=DurableStartupBenchmark -Dbenchmark.items=1000000
+ */
+class DurableStartupBenchmark {
+
+    private static final int ITEMS = Integer.getInteger("benchmark.items", 1_000_000);
+    private static final int CRASH_ITEMS = 10_000;
+
+    @TempDir
+    Path storageDir;
+
+    @Test
+    void measureStartupAndCrashRecovery() {
+        String storagePath = storageDir.resolve("todo-db").toString();
+
+        long seedMillis;
+        try (ConfigurableApplicationContext context = start(storagePath)) {
+            seedMillis = TodoDatasetGenerator.seed(context.getBean(JdbcTemplate.class), ITEMS);
+        }
+        long fileBytes = new File(storagePath + ".mv.db").length();
+
+        long cleanStart = System.nanoTime();
+        ConfigurableApplicationContext context = start(storagePath);
+        long cleanStartMillis = (System.nanoTime() - cleanStart) / 1_000_000;
+        long heapBytes = usedHeap();
+        try {
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            assertThat(count(jdbc)).isEqualTo(ITEMS);
+            jdbc.update("""
+                    INSERT INTO todo_items (id, description, status, created_at, due_at, version)
+                    SELECT NEXT VALUE FOR todo_items_seq, 'Committed before crash ' || X, 'NOT_DONE',
+                           CURRENT_TIMESTAMP, DATEADD('DAY', 1, CURRENT_TIMESTAMP), 0
+                    FROM SYSTEM_RANGE(1, ?)
+                    """, CRASH_ITEMS);
+            jdbc.execute("SHUTDOWN IMMEDIATELY");
+        } finally {
+            try {
+                context.close();
+            } catch (RuntimeException expected) {
+                // the pool finds its connections already dead
+            }
+        }
+
+        long recoveryStart = System.nanoTime();
+        long recoveredRows;
+        try (ConfigurableApplicationContext recovered = start(storagePath)) {
+            long recoveryMillis = (System.nanoTime() - recoveryStart) / 1_000_000;
+            recoveredRows = count(recovered.getBean(JdbcTemplate.class));
+
+            System.out.printf("""
+
+                    === durable profile, %,d rows ===
+                    seed              %,d ms
+                    database file     %,d MB
+                    clean start       %,d ms (heap in use %,d MB)
+                    start after kill  %,d ms (%,d rows recovered)
+                    %n""",
+                    ITEMS, seedMillis, fileBytes >> 20,
+                    cleanStartMillis, heapBytes >> 20,
+                    recoveryMillis, recoveredRows);
+        }
+        assertThat(recoveredRows).isEqualTo(ITEMS + CRASH_ITEMS);
+    }
+
+    private static ConfigurableApplicationContext start(String storagePath) {
+        return new SpringApplicationBuilder(TodoServiceApplication.class)
+                .profiles("durable")
+                .run(
+                        "--server.port=0",
+                        "--todo.storage.path=" + storagePath,
+                        "--logging.level.root=WARN");
+    }
+
+    private static long count(JdbcTemplate jdbc) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM todo_items", Long.class);
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
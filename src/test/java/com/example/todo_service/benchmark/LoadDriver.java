@@ -0,0 +1,193 @@
+package com.example.todo_service.benchmark;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/*
+ * HTTP load generator for the benchmarks in this package. Two models:
+ * - closed loop: a fixed number of virtual-thread clients, each sending the
+ *   next request as soon as the previous one completes;
+ * - open loop: requests are started on a fixed schedule regardless of how
+ *   fast the server answers. Latency is measured from the intended start
+ *   time, so a stalled server shows up in the tail instead of silently
+ *   lowering the offered load (coordinated omission).
+ * Latencies go into HdrHistograms, overall and per operation.
+ */
+final class LoadDriver {
+
+    private static final int MAX_IN_FLIGHT = 10_000;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final URI baseUri;
+
+    LoadDriver(URI baseUri) {
+        this.baseUri = baseUri;
+    }
+
+    record Operation(String name, int weight, Function<URI, HttpRequest> request) {
+    }
+
+    record Report(String label,
+                  long requests,
+                  long errors,
+                  Duration elapsed,
+                  Histogram latencyMicros,
+                  Map<String, Histogram> operationLatencyMicros) {
+
+        double throughput() {
+            return requests / (elapsed.toNanos() / 1e9);
+        }
+
+        String format() {
+            StringBuilder out = new StringBuilder(line(label, requests, latencyMicros, elapsed)
+                    + String.format("  errors=%d", errors));
+            operationLatencyMicros.forEach((name, histogram) -> out
+                    .append(System.lineSeparator())
+                    .append(line("  " + name, histogram.getTotalCount(), histogram, elapsed)));
+            return out.toString();
+        }
+
+        private static String line(String label, long requests, Histogram histogram, Duration elapsed) {
+            return String.format("%-24s %9d req  %8.0f req/s  p50=%8.2f ms  p99=%8.2f ms  p999=%8.2f ms  max=%8.2f ms",
+                    label,
+                    requests,
+                    requests / (elapsed.toNanos() / 1e9),
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0,
+                    histogram.getMaxValue() / 1000.0);
+        }
+    }
+
+    Report run(String label, List<Operation> operations, int clients, Duration duration) throws InterruptedException {
+        Recorders recorders = new Recorders(operations);
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        Operation operation = recorders.pick();
+                        send(operation, System.nanoTime(), recorders);
+                    }
+                    return null;
+                });
+            }
+        }
+        return recorders.report(label, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    Report runAtRate(String label, List<Operation> operations, int requestsPerSecond, Duration duration)
+            throws InterruptedException {
+        Recorders recorders = new Recorders(operations);
+        AtomicInteger inFlight = new AtomicInteger();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        long total = duration.toSeconds() * requestsPerSecond;
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < total; i++) {
+                long intended = start + i * intervalNanos;
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Operation operation = recorders.pick();
+                if (inFlight.incrementAndGet() > MAX_IN_FLIGHT) {
+                    // the server has fallen hopelessly behind; count instead of queueing forever
+                    inFlight.decrementAndGet();
+                    recorders.errors.incrementAndGet();
+                    continue;
+                }
+                executor.submit(() -> {
+                    try {
+                        send(operation, intended, recorders);
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+            }
+        }
+        return recorders.report(label, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private void send(Operation operation, long startNanos, Recorders recorders) {
+        try {
+            HttpResponse<Void> response = client.send(
+                    operation.request().apply(baseUri),
+                    HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 500 || response.statusCode() == 429) {
+                recorders.errors.incrementAndGet();
+            }
+        } catch (Exception e) {
+            recorders.errors.incrementAndGet();
+        }
+        recorders.record(operation, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+    }
+
+    static List<Operation> operations(Operation... operations) {
+        return new ArrayList<>(List.of(operations));
+    }
+
+    private static final class Recorders {
+
+        private final List<Operation> operations;
+        private final int totalWeight;
+        private final Recorder overall = new Recorder(3);
+        private final Map<String, Recorder> byOperation = new LinkedHashMap<>();
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+
+        private Recorders(List<Operation> operations) {
+            this.operations = operations;
+            this.totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+            operations.forEach(operation -> byOperation.put(operation.name(), new Recorder(3)));
+        }
+
+        private Operation pick() {
+            int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+            for (Operation operation : operations) {
+                roll -= operation.weight();
+                if (roll < 0) {
+                    return operation;
+                }
+            }
+            return operations.get(operations.size() - 1);
+        }
+
+        private void record(Operation operation, long micros) {
+            overall.recordValue(micros);
+            byOperation.get(operation.name()).recordValue(micros);
+            requests.incrementAndGet();
+        }
+
+        private Report report(String label, Duration elapsed) {
+            Map<String, Histogram> histograms = new LinkedHashMap<>();
+            byOperation.forEach((name, recorder) -> histograms.put(name, recorder.getIntervalHistogram()));
+            return new Report(label, requests.get(), errors.get(), elapsed, overall.getIntervalHistogram(), histograms);
+        }
+    }
+}
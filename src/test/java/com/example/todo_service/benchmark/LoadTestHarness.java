@@ -0,0 +1,163 @@
+package com.example.todo_service.benchmark;
+
+import com.example.todo_service.TodoServiceApplication;
+import com.example.todo_service.service.PastDueSweepResult;
+import com.example.todo_service.service.TodoService;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * End-to-end load test of the full HTTP stack on localhost. Starts the
+ * application on its in-memory H2 database, seeds it with
+ * TodoDatasetGenerator, then offers a fixed request rate with a configurable
+ * operation mix while the past-due sweep runs concurrently. Not part of the
+ * regular build, run explicitly:
+ *
+ *   ./mvnw test -Dtest=LoadTestHarness \
+ *       -Dloadtest.items=100000 -Dloadtest.rate=500 -Dloadtest.seconds=30 \
+ *       -Dloadtest.mix=getById:45,page:20,list:2,create:13,done:10,notDone:10 \
+ *       -Dloadtest.sweep-interval-ms=1000 -Dloadtest.profiles=virtual-threads
+ *
+ * Admission control is off unless -Dloadtest.admission=true: all requests
+ * come from one client, which the per-client rate limit would throttle.
+ */
+class LoadTestHarness {
+
+    private static final int ITEMS = Integer.getInteger("loadtest.items", 100_000);
+    private static final int RATE = Integer.getInteger("loadtest.rate", 500);
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("loadtest.seconds", 30));
+    private static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("loadtest.warmup-seconds", 10));
+    private static final long SWEEP_INTERVAL_MS = Long.getLong("loadtest.sweep-interval-ms", 1_000);
+    private static final String MIX = System.getProperty(
+            "loadtest.mix", "getById:45,page:20,list:2,create:13,done:10,notDone:10");
+    private static final String PROFILES = System.getProperty("loadtest.profiles", "");
+
+    private static final Map<String, Function<URI, HttpRequest>> REQUESTS = Map.of(
+            "getById", uri -> HttpRequest.newBuilder(uri.resolve("/todos/" + randomId())).GET().build(),
+            "page", uri -> HttpRequest.newBuilder(uri.resolve("/todos?limit=50&status=NOT_DONE&sort=dueAt")).GET().build(),
+            "list", uri -> HttpRequest.newBuilder(uri.resolve("/todos")).GET().build(),
+            "listAll", uri -> HttpRequest.newBuilder(uri.resolve("/todos?includeDone=true")).GET().build(),
+            "create", uri -> HttpRequest.newBuilder(uri.resolve("/todos"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(newTodoJson()))
+                    .build(),
+            "done", uri -> HttpRequest.newBuilder(uri.resolve("/todos/" + randomId() + "/done"))
+                    .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                    .build(),
+            "notDone", uri -> HttpRequest.newBuilder(uri.resolve("/todos/" + randomId() + "/not-done"))
+                    .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                    .build());
+
+    @Test
+    void run() throws Exception {
+        /* Command-line arguments, so they override application.yaml */
+        String[] args = {
+                "--server.address=127.0.0.1",
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--todo.admission.enabled=" + Boolean.getBoolean("loadtest.admission"),
+                "--logging.level.root=WARN"
+        };
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(TodoServiceApplication.class);
+        if (!PROFILES.isBlank()) {
+            builder.profiles(PROFILES.split(","));
+        }
+
+        try (ConfigurableApplicationContext context = builder.run(args)) {
+            long seedMillis = TodoDatasetGenerator.seed(context.getBean(JdbcTemplate.class), ITEMS);
+            System.out.printf("%nSeeded %,d todos in %d ms%n", ITEMS, seedMillis);
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LoadDriver driver = new LoadDriver(URI.create("http://127.0.0.1:" + port));
+            List<LoadDriver.Operation> mix = parseMix(MIX);
+
+            driver.runAtRate("warmup", mix, RATE, WARMUP);
+
+            SweepStats sweeps = new SweepStats();
+            ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor();
+            TodoService todoService = context.getBean(TodoService.class);
+            sweeper.scheduleWithFixedDelay(
+                    () -> sweeps.record(todoService.markPastDueItems()),
+                    0, SWEEP_INTERVAL_MS, TimeUnit.MILLISECONDS);
+
+            LoadDriver.Report report;
+            try {
+                report = driver.runAtRate("total", mix, RATE, DURATION);
+            } finally {
+                sweeper.shutdown();
+                sweeper.awaitTermination(1, TimeUnit.MINUTES);
+            }
+
+            System.out.printf("%n=== %d req/s offered for %d s, mix %s, profiles [%s] ===%n%s%n%s%n",
+                    RATE, DURATION.toSeconds(), MIX, PROFILES, report.format(), sweeps.format());
+            assertThat(report.requests()).isPositive();
+        }
+    }
+
+    private static List<LoadDriver.Operation> parseMix(String mix) {
+        return Arrays.stream(mix.split(","))
+                .map(entry -> entry.trim().split(":"))
+                .map(parts -> {
+                    Function<URI, HttpRequest> request = REQUESTS.get(parts[0]);
+                    if (request == null) {
+                        throw new IllegalArgumentException("Unknown operation '" + parts[0]
+                                + "', expected one of " + REQUESTS.keySet());
+                    }
+                    return new LoadDriver.Operation(parts[0], Integer.parseInt(parts[1]), request);
+                })
+                .collect(Collectors.toList());
+    }
+
+    private static long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, ITEMS + 1);
+    }
+
+    private static String newTodoJson() {
+        // mostly future due dates, some already overdue so the sweep keeps finding work
+        long minutes = ThreadLocalRandom.current().nextLong(-2, 60 * 24 * 30);
+        return "{\"description\":\"Load test task\",\"dueAt\":\""
+                + OffsetDateTime.now().plusMinutes(minutes) + "\"}";
+    }
+
+    private static final class SweepStats {
+
+        private final Histogram durationMicros = new Histogram(3);
+        private final AtomicLong rows = new AtomicLong();
+
+        private synchronized void record(PastDueSweepResult result) {
+            durationMicros.recordValue(TimeUnit.NANOSECONDS.toMicros(result.elapsed().toNanos()));
+            rows.addAndGet(result.updatedRows());
+        }
+
+        private synchronized String format() {
+            return String.format("%-24s %9d runs  rows=%,d  p50=%8.2f ms  p99=%8.2f ms  max=%8.2f ms",
+                    "past-due sweep",
+                    durationMicros.getTotalCount(),
+                    rows.get(),
+                    durationMicros.getValueAtPercentile(50) / 1000.0,
+                    durationMicros.getValueAtPercentile(99) / 1000.0,
+                    durationMicros.getMaxValue() / 1000.0);
+        }
+    }
+}
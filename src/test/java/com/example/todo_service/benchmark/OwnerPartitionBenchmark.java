@@ -0,0 +1,148 @@
+package com.example.todo_service.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Latency of one small owner's listing while a single heavy owner grows
+ * the table around it. With the owner-leading indexes it should stay
+ * flat. Not part of the regular build, run explicitly:
+ *
+ *   ./mvnw test -Dtest=OwnerPartitionBenchmark -Dbenchmark.rows=1000000
+ */
+class OwnerPartitionBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:owner-benchmark;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=0";
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+    private static final int OWNERS = 100;
+    private static final int ROWS_PER_OWNER = 1_000;
+    private static final String SMALL_OWNER = "owner-7";
+    private static final String HEAVY_OWNER = "heavy";
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = 10;
+
+    // Same shape as the SQL Hibernate generates for the repository methods
+    private static final String LIST_BY_OWNER_AND_STATUS =
+            "select id, owner_id, description, status, created_at, due_at, done_at, version "
+                    + "from todo_items where owner_id = ? and status = ? order by id";
+
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = DriverManager.getConnection(URL, "sa", "");
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Test
+    void compareSmallOwnerAsHeavyOwnerGrows() throws SQLException {
+        Flyway.configure().dataSource(URL, "sa", "").load().migrate();
+
+        seed(1, OWNERS * ROWS_PER_OWNER, "'owner-' || MOD(X / 100, " + OWNERS + ")");
+        System.out.printf("%n=== %,d rows, %d owners of %,d rows ===%n", OWNERS * ROWS_PER_OWNER, OWNERS, ROWS_PER_OWNER);
+        long before = run(SMALL_OWNER);
+
+        seed(OWNERS * ROWS_PER_OWNER + 1, ROWS, "'" + HEAVY_OWNER + "'");
+        System.out.printf("%n=== %,d more rows for owner \"%s\" ===%n", ROWS, HEAVY_OWNER);
+        long after = run(SMALL_OWNER);
+        run(HEAVY_OWNER);
+
+        assertThat(after).isEqualTo(before);
+    }
+
+    /*
+     * Same status mix as TodoDatasetGenerator: 30% DONE, 15% PAST_DUE, the
+     * rest NOT_DONE with one in ten already overdue.
+     */
+    private void seed(int firstId, int rows, String ownerSql) throws SQLException {
+        long start = System.nanoTime();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    INSERT INTO todo_items (id, owner_id, description, status, created_at, due_at, done_at, version)
+                    SELECT X,
+                           %s,
+                           'Benchmark task ' || X,
+                           CASE WHEN MOD(X, 100) < 30 THEN 'DONE'
+                                WHEN MOD(X, 100) < 45 THEN 'PAST_DUE'
+                                ELSE 'NOT_DONE' END,
+                           DATEADD('DAY', -30, CURRENT_TIMESTAMP),
+                           CASE WHEN MOD(X, 10) = 0 THEN DATEADD('MINUTE', -MOD(X, 43200) - 1, CURRENT_TIMESTAMP)
+                                ELSE DATEADD('MINUTE', MOD(X, 43200) + 1, CURRENT_TIMESTAMP) END,
+                           CASE WHEN MOD(X, 100) < 30 THEN DATEADD('DAY', -1, CURRENT_TIMESTAMP) END,
+                           0
+                    FROM SYSTEM_RANGE(%d, %d)
+                    """.formatted(ownerSql, firstId, firstId + rows - 1));
+            statement.execute("ANALYZE");
+        }
+        System.out.printf("Seeded %,d rows in %d ms%n", rows, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private long run(String owner) throws SQLException {
+        String sql = LIST_BY_OWNER_AND_STATUS;
+        System.out.printf("%n-- findViewsByOwnerAndStatus(%s, NOT_DONE)%n%s%n", owner, explain(sql, owner));
+
+        long rows = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            rows = execute(sql, owner);
+        }
+        long[] nanos = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            execute(sql, owner);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("rows=%,d  median=%.2f ms  min=%.2f ms  max=%.2f ms%n",
+                rows,
+                nanos[ITERATIONS / 2] / 1e6,
+                nanos[0] / 1e6,
+                nanos[ITERATIONS - 1] / 1e6);
+        assertThat(rows).isPositive();
+        return rows;
+    }
+
+    private String explain(String sql, String owner) throws SQLException {
+        try (PreparedStatement statement = prepare("EXPLAIN " + sql, owner);
+             ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+
+    private long execute(String sql, String owner) throws SQLException {
+        long rows = 0;
+        try (PreparedStatement statement = prepare(sql, owner);
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private PreparedStatement prepare(String sql, String owner) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        statement.setString(1, owner);
+        statement.setString(2, "NOT_DONE");
+        return statement;
+    }
+}
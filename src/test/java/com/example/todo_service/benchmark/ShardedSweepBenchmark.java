@@ -0,0 +1,111 @@
+package com.example.todo_service.benchmark;
+
+import com.example.todo_service.TodoServiceApplication;
+import com.example.todo_service.scheduler.PastDueTodoScheduler;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Backlog sweep by one instance with one worker, one instance with a
+ * worker per CPU, and two instances at once. The instances are separate
+ * application contexts sharing one in-memory database, so they coordinate
+ * through the lease table exactly as replicas would. Checks that every
+ * overdue row is flipped exactly once. Not part of the regular build, run
+ * explicitly:
+ *
+ *   ./mvnw test -Dtest=ShardedSweepBenchmark -Dbenchmark.rows=200000
+ */
+class ShardedSweepBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:sweep-benchmark;DB_CLOSE_DELAY=-1";
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 200_000);
+
+    @Test
+    void compareSweepLayouts() {
+        try (ConfigurableApplicationContext single = start("single-worker", 1);
+             ConfigurableApplicationContext first = start("instance-a", 0);
+             ConfigurableApplicationContext second = start("instance-b", 0)) {
+            JdbcTemplate jdbc = single.getBean(JdbcTemplate.class);
+
+            System.out.printf("%n=== %,d overdue rows, %d CPU(s) ===%n", ROWS, Runtime.getRuntime().availableProcessors());
+            sweep(jdbc, "1 instance, 1 worker", single);
+            sweep(jdbc, "1 instance, 1 worker per CPU", first);
+            sweep(jdbc, "2 instances, 1 worker per CPU each", first, second);
+        }
+    }
+
+    private static void sweep(JdbcTemplate jdbc, String name, ConfigurableApplicationContext... instances) {
+        seedBacklog(jdbc);
+        double[] before = new double[instances.length];
+        for (int i = 0; i < instances.length; i++) {
+            before[i] = sweptRows(instances[i]);
+        }
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> runs = new ArrayList<>();
+        for (ConfigurableApplicationContext instance : instances) {
+            runs.add(CompletableFuture.runAsync(() -> instance.getBean(PastDueTodoScheduler.class).markPastDueTodos()));
+        }
+        CompletableFuture.allOf(runs.toArray(CompletableFuture[]::new)).join();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        StringBuilder split = new StringBuilder();
+        long total = 0;
+        for (int i = 0; i < instances.length; i++) {
+            long rows = Math.round(sweptRows(instances[i]) - before[i]);
+            total += rows;
+            split.append(String.format("  %s=%,d", instances[i].getId(), rows));
+        }
+        long pastDue = jdbc.queryForObject("SELECT COUNT(*) FROM todo_items WHERE status = 'PAST_DUE'", Long.class);
+        System.out.printf("%-36s %,6d ms  %,9.0f rows/s %s%n", name, millis, ROWS * 1000.0 / Math.max(1, millis), split);
+
+        assertThat(pastDue).isEqualTo(ROWS);
+        assertThat(total).isEqualTo(ROWS);
+    }
+
+    /* Every row NOT_DONE and overdue; all shards free again. */
+    private static void seedBacklog(JdbcTemplate jdbc) {
+        jdbc.execute("TRUNCATE TABLE todo_items");
+        jdbc.update("""
+                INSERT INTO todo_items (id, description, status, created_at, due_at, version)
+                SELECT X, 'Overdue task ' || X, 'NOT_DONE',
+                       DATEADD('DAY', -2, CURRENT_TIMESTAMP),
+                       DATEADD('SECOND', -MOD(X, 86400) - 1, CURRENT_TIMESTAMP),
+                       0
+                FROM SYSTEM_RANGE(1, ?)
+                """, ROWS);
+        jdbc.update("UPDATE past_due_sweep_leases SET holder = NULL, leased_until = TIMESTAMP WITH TIME ZONE '1970-01-01 00:00:00+00'");
+    }
+
+    private static double sweptRows(ConfigurableApplicationContext instance) {
+        return instance.getBean(MeterRegistry.class)
+                .get("todo.past-due.rows")
+                .tag("trigger", "sweep")
+                .counter()
+                .count();
+    }
+
+    private static ConfigurableApplicationContext start(String instanceId, int parallelism) {
+        return new SpringApplicationBuilder(TodoServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.application.name=" + instanceId,
+                        "--spring.datasource.url=" + URL,
+                        "--spring.main.banner-mode=off",
+                        "--todo.deadlines.enabled=false",
+                        "--todo.past-due.sweep-interval=PT1H",
+                        "--todo.past-due.instance-id=" + instanceId,
+                        "--todo.past-due.parallelism=" + parallelism,
+                        "--logging.level.root=WARN");
+    }
+}
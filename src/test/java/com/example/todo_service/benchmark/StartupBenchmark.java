@@ -0,0 +1,160 @@
+package com.example.todo_service.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Time to first request and resident memory of the packaged service, per
+ * startup variant: plain JVM, Spring AOT on the JVM, AppCDS, AppCDS with
+ * AOT, and the native image when target/todo-service exists. Each variant
+ * runs as its own process and is timed from launch until GET /todos first
+ * answers 200; RSS is read from /proc right after. Needs the AOT-processed
+ * jar (and GraalVM for the native binary), so it is run explicitly:
+ *
+ *   ./mvnw -Pnative package -DskipTests
+ *   ./mvnw -Pnative native:compile -DskipTests        (optional)
+ *   ./mvnw test -Dtest=StartupBenchmark -Dbenchmark.runs=5
+ */
+class StartupBenchmark {
+
+    private static final int RUNS = Integer.getInteger("benchmark.runs", 5);
+    private static final Path WORK = Path.of("target", "startup-benchmark");
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    @Test
+    void compareStartupVariants() throws Exception {
+        Path jar = packagedJar();
+        FileSystemUtils.deleteRecursively(WORK);
+        Files.createDirectories(WORK);
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+        Path extracted = WORK.resolve("app");
+        exec(List.of(java, "-Djarmode=tools", "-jar", jar.toString(), "extract", "--destination", extracted.toString()), "extract");
+        String extractedJar = extracted.resolve(jar.getFileName()).toString();
+        String cds = WORK.resolve("app.jsa").toString();
+        String cdsAot = WORK.resolve("app-aot.jsa").toString();
+        exec(List.of(java, "-XX:ArchiveClassesAtExit=" + cds, "-Dspring.context.exit=onRefresh",
+                "-jar", extractedJar), "train-cds");
+        exec(List.of(java, "-XX:ArchiveClassesAtExit=" + cdsAot, "-Dspring.context.exit=onRefresh",
+                "-Dspring.aot.enabled=true", "-jar", extractedJar), "train-cds-aot");
+
+        List<Variant> variants = new ArrayList<>(List.of(
+                new Variant("jvm", List.of(java, "-jar", jar.toString())),
+                new Variant("jvm + aot", List.of(java, "-Dspring.aot.enabled=true", "-jar", jar.toString())),
+                new Variant("appcds", List.of(java, "-XX:SharedArchiveFile=" + cds, "-jar", extractedJar)),
+                new Variant("appcds + aot", List.of(java, "-XX:SharedArchiveFile=" + cdsAot,
+                        "-Dspring.aot.enabled=true", "-jar", extractedJar))));
+        Path image = Path.of("target", "todo-service");
+        if (Files.isExecutable(image)) {
+            variants.add(new Variant("native", List.of(image.toString())));
+        } else {
+            System.out.println("No native image at " + image + ", skipping that variant");
+        }
+
+        System.out.printf("%n=== time to first request, median of %d runs ===%n", RUNS);
+        for (Variant variant : variants) {
+            long[] millis = new long[RUNS];
+            long[] rssKb = new long[RUNS];
+            for (int i = 0; i < RUNS; i++) {
+                Sample sample = start(variant, i);
+                millis[i] = sample.millis();
+                rssKb[i] = sample.rssKb();
+            }
+            Arrays.sort(millis);
+            Arrays.sort(rssKb);
+            System.out.printf("%-14s first request %,7d ms (min %,7d, max %,7d)   RSS %,5d MB%n",
+                    variant.name(), millis[RUNS / 2], millis[0], millis[RUNS - 1], rssKb[RUNS / 2] >> 10);
+        }
+    }
+
+    private Sample start(Variant variant, int run) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> command = new ArrayList<>(variant.command());
+        command.add("--server.port=" + port);
+        command.add("--logging.level.root=WARN");
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/todos"))
+                .header("X-Owner-Id", "startup")
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(WORK.resolve(variant.name().replace(" + ", "-") + "-" + run + ".log").toFile())
+                .start();
+        try {
+            long deadline = start + STARTUP_TIMEOUT.toNanos();
+            while (true) {
+                assertThat(process.isAlive()).as("%s exited during startup", variant.name()).isTrue();
+                assertThat(System.nanoTime()).as("%s did not answer in time", variant.name()).isLessThan(deadline);
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        break;
+                    }
+                } catch (ConnectException notListeningYet) {
+                    // keep polling
+                }
+                Thread.sleep(5);
+            }
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            return new Sample(millis, rssKb(process.pid()));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static long rssKb(long pid) throws IOException {
+        return Files.readAllLines(Path.of("/proc", Long.toString(pid), "status")).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .map(line -> Long.parseLong(line.replaceAll("\\D", "")))
+                .findFirst()
+                .orElse(0L);
+    }
+
+    private static void exec(List<String> command, String name) throws Exception {
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(WORK.resolve(name + ".log").toFile())
+                .start();
+        assertThat(process.waitFor()).as("%s failed, see %s.log", name, name).isZero();
+    }
+
+    private static Path packagedJar() {
+        File[] jars = new File("target").listFiles((dir, name) -> name.startsWith("todo-service-") && name.endsWith(".jar"));
+        assertThat(jars).as("package the service first: ./mvnw -Pnative package -DskipTests").isNotEmpty();
+        return jars[0].toPath();
+    }
+
+    private record Variant(String name, List<String> command) {
+    }
+
+    private record Sample(long millis, long rssKb) {
+    }
+}
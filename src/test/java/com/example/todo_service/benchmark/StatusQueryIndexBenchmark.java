@@ -0,0 +1,159 @@
+package com.example.todo_service.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Query plans and latency of the two status queries behind the default
+ * listing and the past-due sweep, before (V1) and after (V2) the status
+ * indexes. Not part of the regular build, run explicitly:
+ *
+ *   ./mvnw test -Dtest=StatusQueryIndexBenchmark -Dbenchmark.rows=1000000
+ */
+class StatusQueryIndexBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:index-benchmark;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=0";
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = 10;
+
+    // Same shape as the SQL Hibernate generates for the repository methods
+    private static final String FIND_BY_STATUS =
+            "select id, created_at, description, done_at, due_at, status "
+                    + "from todo_items where status = ?";
+    private static final String FIND_BY_STATUS_AND_DUE_AT_BEFORE =
+            "select id, created_at, description, done_at, due_at, status "
+                    + "from todo_items where status = ? and due_at < ?";
+
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = DriverManager.getConnection(URL, "sa", "");
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Test
+    void compareQueriesBeforeAndAfterIndexes() throws SQLException {
+        migrate("1");
+        seed();
+
+        System.out.printf("%n=== %,d rows, schema V1 (no indexes) ===%n", ROWS);
+        run();
+
+        migrate(null);
+
+        System.out.printf("%n=== %,d rows, latest schema (status indexes) ===%n", ROWS);
+        run();
+    }
+
+    private void migrate(String target) {
+        var configuration = Flyway.configure().dataSource(URL, "sa", "");
+        if (target != null) {
+            configuration.target(target);
+        }
+        configuration.load().migrate();
+    }
+
+    /*
+     * Mostly history (DONE / PAST_DUE), a third NOT_DONE, and a thin slice of
+     * NOT_DONE rows that are already overdue, as in steady state between
+     * sweeps.
+     */
+    private void seed() throws SQLException {
+        long start = System.nanoTime();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    INSERT INTO todo_items (description, status, created_at, due_at, done_at)
+                    SELECT 'Benchmark task ' || X,
+                           CASE WHEN MOD(X, 100) < 60 THEN 'DONE'
+                                WHEN MOD(X, 100) < 70 THEN 'PAST_DUE'
+                                ELSE 'NOT_DONE' END,
+                           DATEADD('DAY', -30, CURRENT_TIMESTAMP),
+                           CASE WHEN MOD(X, 100) >= 70 AND MOD(X, 1000) <> 999
+                                THEN DATEADD('MINUTE', MOD(X, 43200) + 1, CURRENT_TIMESTAMP)
+                                ELSE DATEADD('MINUTE', -MOD(X, 43200) - 1, CURRENT_TIMESTAMP) END,
+                           CASE WHEN MOD(X, 100) < 60 THEN DATEADD('DAY', -1, CURRENT_TIMESTAMP) END
+                    FROM SYSTEM_RANGE(1, %d)
+                    """.formatted(ROWS));
+            statement.execute("ANALYZE");
+        }
+        System.out.printf("Seeded %,d rows in %d ms%n", ROWS, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void run() throws SQLException {
+        OffsetDateTime now = OffsetDateTime.now();
+        measure("findByStatus(NOT_DONE)", FIND_BY_STATUS, now, false);
+        measure("findByStatusAndDueAtBefore(NOT_DONE, now)", FIND_BY_STATUS_AND_DUE_AT_BEFORE, now, true);
+    }
+
+    private void measure(String name, String sql, OffsetDateTime now, boolean withDueAt) throws SQLException {
+        System.out.printf("%n-- %s%n%s%n", name, explain(sql, now, withDueAt));
+
+        long rows = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            rows = execute(sql, now, withDueAt);
+        }
+        long[] nanos = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            execute(sql, now, withDueAt);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("rows=%,d  median=%.2f ms  min=%.2f ms  max=%.2f ms%n",
+                rows,
+                nanos[ITERATIONS / 2] / 1e6,
+                nanos[0] / 1e6,
+                nanos[ITERATIONS - 1] / 1e6);
+        assertThat(rows).isPositive();
+    }
+
+    private String explain(String sql, OffsetDateTime now, boolean withDueAt) throws SQLException {
+        try (PreparedStatement statement = prepare("EXPLAIN " + sql, now, withDueAt);
+             ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+
+    private long execute(String sql, OffsetDateTime now, boolean withDueAt) throws SQLException {
+        long rows = 0;
+        try (PreparedStatement statement = prepare(sql, now, withDueAt);
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private PreparedStatement prepare(String sql, OffsetDateTime now, boolean withDueAt) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        statement.setString(1, "NOT_DONE");
+        if (withDueAt) {
+            statement.setObject(2, now);
+        }
+        return statement;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.todo_service.benchmark;
+
+import com.example.todo_service.TodoServiceApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Throughput and tail latency of the same request mix on the default
+ * platform-thread Tomcat pool and with the virtual-threads profile. Not part
+ * of the regular build, run explicitly:
+ *
+ *   ./mvnw test -Dtest=ThreadModeLoadBenchmark -Dbenchmark.clients=400 -Dbenchmark.seconds=20
+ */
+class ThreadModeLoadBenchmark {
+
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 400);
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("benchmark.seconds", 20));
+    private static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("benchmark.warmup-seconds", 5));
+    private static final int SEED_ITEMS = Integer.getInteger("benchmark.items", 5_000);
+
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        LoadDriver.Report platform = run("platform-threads", null);
+        LoadDriver.Report virtual = run("virtual-threads", "virtual-threads");
+
+        System.out.printf("%n=== %d clients, %d s ===%n%s%n%s%n",
+                CLIENTS, DURATION.toSeconds(), platform.format(), virtual.format());
+        assertThat(platform.requests()).isPositive();
+        assertThat(virtual.requests()).isPositive();
+    }
+
+    private LoadDriver.Report run(String label, String profile) throws Exception {
+        /* Command-line arguments, so they override application.yaml */
+        String[] args = {
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:load-" + label,
+                "--spring.jpa.show-sql=false",
+                "--todo.admission.enabled=false",
+                "--logging.level.root=WARN"
+        };
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(TodoServiceApplication.class);
+        if (profile != null) {
+            builder.profiles(profile);
+        }
+
+        try (ConfigurableApplicationContext context = builder.run(args)) {
+            TodoDatasetGenerator.seed(context.getBean(JdbcTemplate.class), SEED_ITEMS);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI baseUri = URI.create("http://localhost:" + port);
+
+            LoadDriver driver = new LoadDriver(baseUri);
+            List<LoadDriver.Operation> mix = LoadDriver.operations(
+                    new LoadDriver.Operation("getById", 60, uri -> HttpRequest
+                            .newBuilder(uri.resolve("/todos/" + randomId()))
+                            .GET()
+                            .build()),
+                    new LoadDriver.Operation("page", 25, uri -> HttpRequest
+                            .newBuilder(uri.resolve("/todos?limit=50&status=NOT_DONE"))
+                            .GET()
+                            .build()),
+                    new LoadDriver.Operation("markDone", 15, uri -> HttpRequest
+                            .newBuilder(uri.resolve("/todos/" + randomId() + "/done"))
+                            .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                            .build()));
+
+            driver.run(label + " (warmup)", mix, CLIENTS, WARMUP);
+            return driver.run(label, mix, CLIENTS, DURATION);
+        }
+    }
+
+    private static long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, SEED_ITEMS + 1);
+    }
+}
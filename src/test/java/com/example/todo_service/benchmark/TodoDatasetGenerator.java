@@ -0,0 +1,52 @@
+package com.example.todo_service.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/*
+ * Seeds todo_items with a single set-based INSERT (H2 SYSTEM_RANGE) instead
+ * of going through JPA or HTTP; a million rows take seconds. Ids are 1..rows
+ * and the id sequence is moved past them so the application keeps working
+ * normally afterwards.
+ *
+ * Distribution per 100 rows: 30 DONE, 15 PAST_DUE, 50 NOT_DONE due within
+ * the next 30 days, 5 NOT_DONE due within the next two minutes so the
+ * past-due sweep has work while a load test runs.
+ */
+public final class TodoDatasetGenerator {
+
+    // matches allocationSize of the todo_items_seq generator on TodoItem
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    private TodoDatasetGenerator() {
+    }
+
+    public static long seed(JdbcTemplate jdbc, int rows) {
+        return seed(jdbc, rows, "'Generated task ' || X");
+    }
+
+    /*
+     * descriptionSql is an SQL expression over the row number X, for
+     * benchmarks that need varied text.
+     */
+    public static long seed(JdbcTemplate jdbc, int rows, String descriptionSql) {
+        long start = System.nanoTime();
+        jdbc.update("""
+                INSERT INTO todo_items (id, description, status, created_at, due_at, done_at, version)
+                SELECT X,
+                       %s,
+                       CASE WHEN MOD(X, 100) < 30 THEN 'DONE'
+                            WHEN MOD(X, 100) < 45 THEN 'PAST_DUE'
+                            ELSE 'NOT_DONE' END,
+                       DATEADD('SECOND', -MOD(X * 7919, 2592000), CURRENT_TIMESTAMP),
+                       CASE WHEN MOD(X, 100) < 45 THEN DATEADD('MINUTE', -MOD(X, 43200) - 1, CURRENT_TIMESTAMP)
+                            WHEN MOD(X, 100) < 95 THEN DATEADD('MINUTE', MOD(X, 43200) + 5, CURRENT_TIMESTAMP)
+                            ELSE DATEADD('SECOND', MOD(X, 120), CURRENT_TIMESTAMP) END,
+                       CASE WHEN MOD(X, 100) < 30 THEN DATEADD('HOUR', -1, CURRENT_TIMESTAMP) END,
+                       0
+                FROM SYSTEM_RANGE(1, ?)
+                """.formatted(descriptionSql), rows);
+        jdbc.execute("ALTER SEQUENCE todo_items_seq RESTART WITH " + (rows + 1 + ID_ALLOCATION_SIZE));
+        jdbc.execute("ANALYZE");
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.todo_service.benchmark;
+
+import com.example.todo_service.TodoServiceApplication;
+import com.example.todo_service.domain.TodoItem;
+import com.example.todo_service.domain.TodoStatus;
+import com.example.todo_service.service.TodoService;
+import com.example.todo_service.service.writebehind.TodoStatusWriteBehind;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Done / not-done toggles on a small set of hot items, written through
+ * TodoService (one transaction per toggle) and through write-behind.
+ * Checks that after the final flush the stored status matches the last
+ * toggle of every item. Not part of the regular build, run explicitly:
+ *
+ *   ./mvnw test -Dtest=WriteBehindToggleBenchmark -Dbenchmark.toggles=200000
+ */
+class WriteBehindToggleBenchmark {
+
+    private static final int TOGGLES = Integer.getInteger("benchmark.toggles", 200_000);
+    private static final int ITEMS = 1_000;
+    private static final int CLIENTS = 8;
+
+    @Test
+    void compareSynchronousAndWriteBehind() {
+        System.out.printf("%n=== %,d toggles over %,d items from %d clients ===%n", TOGGLES, ITEMS, CLIENTS);
+        run("synchronous", false);
+        run("write-behind", true);
+    }
+
+    private static void run(String name, boolean writeBehind) {
+        try (ConfigurableApplicationContext context = start(name, writeBehind)) {
+            TodoService service = context.getBean(TodoService.class);
+            TodoStatusWriteBehind writes = context.getBean(TodoStatusWriteBehind.class);
+            List<Long> ids = new ArrayList<>(ITEMS);
+            for (int i = 0; i < ITEMS; i++) {
+                TodoItem item = service.addTodo("Hot task " + i, OffsetDateTime.now().plusDays(1));
+                ids.add(item.getId());
+            }
+
+            /* Client c only toggles ids i with i % CLIENTS == c, so the last toggle per id is known. */
+            TodoStatus[] last = new TodoStatus[ITEMS];
+            long start = System.nanoTime();
+            List<CompletableFuture<Void>> clients = new ArrayList<>();
+            for (int c = 0; c < CLIENTS; c++) {
+                int client = c;
+                clients.add(CompletableFuture.runAsync(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int n = 0; n < TOGGLES / CLIENTS; n++) {
+                        int index = random.nextInt(ITEMS / CLIENTS) * CLIENTS + client;
+                        boolean done = random.nextBoolean();
+                        if (done) {
+                            writes.markDone(TodoItem.DEFAULT_OWNER, ids.get(index), null);
+                        } else {
+                            writes.markNotDone(TodoItem.DEFAULT_OWNER, ids.get(index), null);
+                        }
+                        last[index] = done ? TodoStatus.DONE : TodoStatus.NOT_DONE;
+                    }
+                }));
+            }
+            CompletableFuture.allOf(clients.toArray(CompletableFuture[]::new)).join();
+            long acknowledged = System.nanoTime() - start;
+            writes.flush();
+            long stored = System.nanoTime() - start;
+
+            System.out.printf("%-14s acknowledged in %,6d ms (%,9.0f toggles/s), stored in %,6d ms%n",
+                    name,
+                    acknowledged / 1_000_000,
+                    TOGGLES * 1e9 / acknowledged,
+                    stored / 1_000_000);
+
+            for (int i = 0; i < ITEMS; i++) {
+                if (last[i] != null) {
+                    assertThat(service.getViewById(ids.get(i)).status()).isEqualTo(last[i]);
+                }
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String name, boolean writeBehind) {
+        return new SpringApplicationBuilder(TodoServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:toggle-" + name,
+                        "--spring.main.banner-mode=off",
+                        "--todo.write-behind.enabled=" + writeBehind,
+                        "--todo.write-behind.max-pending=" + ITEMS,
+                        "--logging.level.root=WARN");
+    }
+}
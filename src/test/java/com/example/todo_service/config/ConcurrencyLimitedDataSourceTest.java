@@ -0,0 +1,125 @@
+package com.example.todo_service.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ConcurrencyLimitedDataSourceTest {
+
+    @Mock
+    private DataSource target;
+
+    @Test
+    void shouldNeverHandOutMoreConnectionsThanPermits() throws Exception {
+        // given: the target counts the connections that are open at once
+        AtomicInteger open = new AtomicInteger();
+        AtomicInteger maxOpen = new AtomicInteger();
+        when(target.getConnection()).thenAnswer(invocation -> {
+            maxOpen.accumulateAndGet(open.incrementAndGet(), Math::max);
+            Connection connection = mock(Connection.class);
+            doAnswer(close -> open.decrementAndGet()).when(connection).close();
+            return connection;
+        });
+        ConcurrencyLimitedDataSource dataSource = new ConcurrencyLimitedDataSource(target, 2, Duration.ofSeconds(10));
+
+        // when
+        List<Future<?>> callers = new ArrayList<>();
+        try (ExecutorService threads = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                callers.add(threads.submit(() -> {
+                    try (Connection connection = dataSource.getConnection()) {
+                        Thread.sleep(20);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> caller : callers) {
+                caller.get();
+            }
+        }
+
+        // then
+        assertThat(maxOpen).hasValue(2);
+        assertThat(open).hasValue(0);
+        assertThat(dataSource.availablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldTimeOutWaitingForPermit() throws Exception {
+        // given
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        ConcurrencyLimitedDataSource dataSource = new ConcurrencyLimitedDataSource(target, 1, Duration.ofMillis(50));
+        Connection held = dataSource.getConnection();
+
+        // when / then
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+        assertThat(dataSource.availablePermits()).isZero();
+        held.close();
+    }
+
+    @Test
+    void shouldReleasePermitOnceWhenClosedTwice() throws Exception {
+        // given
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        ConcurrencyLimitedDataSource dataSource = new ConcurrencyLimitedDataSource(target, 1, Duration.ofMillis(50));
+        Connection held = dataSource.getConnection();
+
+        // when
+        held.close();
+        held.close();
+
+        // then
+        assertThat(dataSource.availablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReturnPermitWhenTargetFails() throws Exception {
+        // given
+        when(target.getConnection()).thenThrow(new IllegalStateException("pool closed"));
+        ConcurrencyLimitedDataSource dataSource = new ConcurrencyLimitedDataSource(target, 1, Duration.ofMillis(50));
+
+        // when / then
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(IllegalStateException.class);
+        assertThat(dataSource.availablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldWrapDataSourceOnlyWithVirtualThreads() {
+        ApplicationContextRunner runner = new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(PropertyPlaceholderAutoConfiguration.class))
+                .withInitializer(context -> context.getBeanFactory()
+                        .setConversionService(ApplicationConversionService.getSharedInstance()))
+                .withUserConfiguration(VirtualThreadsConfiguration.class)
+                .withBean(DataSource.class, () -> target)
+                .withPropertyValues("todo.db.max-concurrency=3");
+
+        runner.withPropertyValues("spring.threads.virtual.enabled=true").run(context ->
+                assertThat(context.getBean(DataSource.class))
+                        .isInstanceOfSatisfying(ConcurrencyLimitedDataSource.class,
+                                dataSource -> assertThat(dataSource.availablePermits()).isEqualTo(3)));
+        runner.run(context -> assertThat(context.getBean(DataSource.class)).isSameAs(target));
+    }
+}
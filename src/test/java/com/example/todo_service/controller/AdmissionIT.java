@@ -0,0 +1,131 @@
+package com.example.todo_service.controller;
+
+import com.example.todo_service.api.admission.AdaptiveConcurrencyLimit;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "todo.admission.expensive.rate=0.01",
+        "todo.admission.expensive.burst=2",
+        "todo.admission.max-clients-per-address=3",
+        "todo.admission.trusted-proxies=10.0.0.100"
+})
+@AutoConfigureMockMvc
+class AdmissionIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void shouldRateLimitExpensiveRequestsPerClient() throws Exception {
+        // given: the expensive budget of "greedy" is spent
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/todos").param("includeDone", "true").header("X-Owner-Id", "greedy"))
+                    .andExpect(status().isOk());
+        }
+
+        // when / then
+        mockMvc.perform(get("/todos").param("includeDone", "true").header("X-Owner-Id", "greedy"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.error").exists());
+        // its standard budget and other clients are unaffected
+        mockMvc.perform(get("/todos").header("X-Owner-Id", "greedy"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/todos").param("includeDone", "true").header("X-Owner-Id", "modest"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldKeyClientsOnRemoteAddressAndHeader() throws Exception {
+        // given: "victim" has spent its expensive budget from its own address
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(expensive("10.0.0.1", "victim")).andExpect(status().isOk());
+        }
+        mockMvc.perform(expensive("10.0.0.1", "victim")).andExpect(status().isTooManyRequests());
+
+        // when / then: the same header from elsewhere is a different client
+        mockMvc.perform(expensive("10.0.0.2", "victim")).andExpect(status().isOk());
+
+        // and rotating the header from one address runs out of fresh buckets
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(expensive("10.0.0.3", "rotating-" + i)).andExpect(status().isOk());
+        }
+        mockMvc.perform(expensive("10.0.0.3", "rotating-3")).andExpect(status().isOk());
+        mockMvc.perform(expensive("10.0.0.3", "rotating-4")).andExpect(status().isOk());
+        mockMvc.perform(expensive("10.0.0.3", "rotating-5")).andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void shouldKeyOwnersBehindTrustedProxyOnTheHeaderAlone() throws Exception {
+        // given: more owners behind the proxy than any single address may mint
+        for (int i = 0; i < 70; i++) {
+            mockMvc.perform(expensive("10.0.0.100", "tenant-" + i)).andExpect(status().isOk());
+        }
+
+        // when / then: each has a budget of its own, spent only by itself
+        mockMvc.perform(expensive("10.0.0.100", "tenant-69")).andExpect(status().isOk());
+        mockMvc.perform(expensive("10.0.0.100", "tenant-69")).andExpect(status().isTooManyRequests());
+        mockMvc.perform(expensive("10.0.0.100", "tenant-0")).andExpect(status().isOk());
+        // anonymous requests through the proxy are keyed on the address the proxy appended
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(expensive("10.0.0.100", null).header("X-Forwarded-For", "spoofed-" + i + ", 192.0.2.1"))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(expensive("10.0.0.100", null).header("X-Forwarded-For", "192.0.2.1"))
+                .andExpect(status().isTooManyRequests());
+        mockMvc.perform(expensive("10.0.0.100", null).header("X-Forwarded-For", "192.0.2.2"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldShedOverLimitAndAdaptToLatency() {
+        // given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, TimeUnit.MILLISECONDS.toNanos(100));
+
+        // when / then: requests over the limit are refused
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+
+        // fast completions under load grow the limit
+        for (int i = 0; i < 20; i++) {
+            limit.release(TimeUnit.MILLISECONDS.toNanos(5), false);
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+        assertThat(limit.limit()).isGreaterThan(2);
+
+        // slow ones cut it back
+        limit.release(TimeUnit.SECONDS.toNanos(1), false);
+        limit.release(TimeUnit.SECONDS.toNanos(1), false);
+        for (int i = 0; i < 20; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+            limit.release(TimeUnit.SECONDS.toNanos(1), false);
+        }
+        assertThat(limit.limit()).isEqualTo(1);
+        assertThat(limit.inFlight()).isZero();
+    }
+
+    private static MockHttpServletRequestBuilder expensive(String remoteAddress, String owner) {
+        MockHttpServletRequestBuilder builder = get("/todos").param("includeDone", "true");
+        if (owner != null) {
+            builder.header("X-Owner-Id", owner);
+        }
+        return builder.with(request -> {
+            request.setRemoteAddr(remoteAddress);
+            return request;
+        });
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.todo_service.controller;
+
+import com.example.todo_service.api.dto.CreateTodoRequest;
+import com.example.todo_service.repository.ArchivedTodoItemRepository;
+import com.example.todo_service.repository.TodoView;
+import com.example.todo_service.service.TodoService;
+import com.example.todo_service.service.archive.TodoArchiver;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/* Own database, so archiving everything finished so far only touches this test's items. */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:archive-it",
+        "todo.archive.enabled=false"
+})
+@AutoConfigureMockMvc
+class TodoArchiveIT {
+
+    private static final String OWNER = "archivist";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TodoArchiver archiver;
+
+    @Autowired
+    private TodoService todoService;
+
+    @MockitoSpyBean
+    private ArchivedTodoItemRepository archive;
+
+    @Test
+    void shouldServeArchivedItemsReadOnly() throws Exception {
+        // given
+        long first = create("Finished first");
+        long open = create("Still open");
+        long last = create("Finished last");
+        mockMvc.perform(patch("/todos/{id}/done", first).header("X-Owner-Id", OWNER)).andExpect(status().isNoContent());
+        mockMvc.perform(patch("/todos/{id}/done", last).header("X-Owner-Id", OWNER)).andExpect(status().isNoContent());
+
+        // when
+        int moved = archiver.archiveBatch(OffsetDateTime.now().plusSeconds(1));
+
+        // then
+        assertThat(moved).isEqualTo(2);
+        assertThat(archiver.hotRows()).isEqualTo(1);
+        mockMvc.perform(get("/todos/{id}", first).header("X-Owner-Id", OWNER))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("DONE"));
+        mockMvc.perform(get("/todos/{id}", first).header("X-Owner-Id", "someone-else"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/todos").param("includeDone", "true").header("X-Owner-Id", OWNER))
+                .andExpect(jsonPath("$[*].id", contains((int) first, (int) open, (int) last)));
+        mockMvc.perform(get("/todos").header("X-Owner-Id", OWNER))
+                .andExpect(jsonPath("$[*].id", contains((int) open)));
+        String page = mockMvc.perform(get("/todos").param("limit", "2").header("X-Owner-Id", OWNER))
+                .andExpect(jsonPath("$.items[*].id", contains((int) first, (int) open)))
+                .andReturn().getResponse().getContentAsString();
+        mockMvc.perform(get("/todos")
+                        .param("limit", "2")
+                        .param("cursor", objectMapper.readTree(page).get("nextCursor").asText())
+                        .header("X-Owner-Id", OWNER))
+                .andExpect(jsonPath("$.items[*].id", contains((int) last)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        mockMvc.perform(get("/todos").param("limit", "10").param("status", "NOT_DONE").header("X-Owner-Id", OWNER))
+                .andExpect(jsonPath("$.items[*].id", contains((int) open)));
+        mockMvc.perform(patch("/todos/{id}/not-done", last).header("X-Owner-Id", OWNER))
+                .andExpect(status().isConflict());
+
+        MvcResult export = mockMvc.perform(get("/todos/export").param("includeDone", "true").header("X-Owner-Id", OWNER))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String[] lines = mockMvc.perform(asyncDispatch(export))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(3);
+        assertThat(objectMapper.readTree(lines[0]).get("id").asLong()).isEqualTo(first);
+        assertThat(objectMapper.readTree(lines[2]).get("id").asLong()).isEqualTo(last);
+    }
+
+    @Test
+    void shouldListItemArchivedBetweenTheTwoReadsOnce() throws Exception {
+        // given: a finished item that the archiver moves right before the archive is read
+        long id = create("Archived mid-listing", "mover");
+        mockMvc.perform(patch("/todos/{id}/done", id).header("X-Owner-Id", "mover")).andExpect(status().isNoContent());
+        /* The repository is a JDK proxy; its spy reaches the real one through the default answer, not callRealMethod. */
+        Answer<?> real = mockingDetails(archive).getMockCreationSettings().getDefaultAnswer();
+        doAnswer(invocation -> {
+            CompletableFuture.runAsync(() -> archiver.archiveBatch(OffsetDateTime.now().plusSeconds(1))).join();
+            return real.answer(invocation);
+        }).when(archive).findViewsByOwner("mover");
+
+        // when
+        List<TodoView> items = todoService.getAll("mover");
+
+        // then
+        assertThat(items).extracting(TodoView::id).containsExactly(id);
+        assertThat(archive.findViewById(id)).isPresent();
+    }
+
+    private long create(String description) throws Exception {
+        return create(description, OWNER);
+    }
+
+    private long create(String description, String owner) throws Exception {
+        CreateTodoRequest request = new CreateTodoRequest();
+        request.setDescription(description);
+        request.setDueAt(OffsetDateTime.now().plusDays(1));
+        String response = mockMvc.perform(post("/todos")
+                        .header("X-Owner-Id", owner)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+}
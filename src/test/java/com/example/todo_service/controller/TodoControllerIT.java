@@ -1,24 +1,50 @@
 package com.example.todo_service.controller;
 
 import com.example.todo_service.api.dto.CreateTodoRequest;
+import com.example.todo_service.api.dto.TodoResponse;
+import com.example.todo_service.config.CborConfiguration;
+import com.example.todo_service.domain.TodoItem;
+import com.example.todo_service.domain.TodoStatus;
+import com.example.todo_service.service.TodoService;
+import com.example.todo_service.service.event.TodoOwnerChanges;
+import com.example.todo_service.service.search.TodoSearchIndex;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
 import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@AutoConfigureObservability
 class TodoControllerIT {
 
     @Autowired
@@ -27,6 +53,18 @@ class TodoControllerIT {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TodoSearchIndex searchIndex;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private TodoOwnerChanges ownerChanges;
+
     @Test
     void shouldCreateTodoAndReturnItInNotDoneList() throws Exception {
         // given
@@ -153,4 +191,720 @@ class TodoControllerIT {
         mockMvc.perform(get("/todos/" + id))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    void shouldRejectChangesAfterPastDueSweep() throws Exception {
+        CreateTodoRequest request = new CreateTodoRequest();
+        request.setDescription("Swept task");
+        request.setDueAt(OffsetDateTime.now().minusMinutes(5));
+
+        String response = mockMvc.perform(post("/todos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andReturn().getResponse().getContentAsString();
+
+        long id = objectMapper.readTree(response).get("id").asLong();
+
+        todoService.markPastDueItems();
+
+        mockMvc.perform(get("/todos/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("PAST_DUE"));
+
+        mockMvc.perform(patch("/todos/{id}/done", id))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void shouldKeepTodosOfDifferentOwnersApart() throws Exception {
+        CreateTodoRequest request = new CreateTodoRequest();
+        request.setDescription("Alice's task");
+        request.setDueAt(OffsetDateTime.now().plusDays(1));
+
+        String response = mockMvc.perform(post("/todos")
+                .header("X-Owner-Id", "alice")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.ownerId").value("alice"))
+                .andReturn().getResponse().getContentAsString();
+
+        long id = objectMapper.readTree(response).get("id").asLong();
+
+        mockMvc.perform(get("/todos").header("X-Owner-Id", "alice"))
+                .andExpect(jsonPath("$[?(@.id == " + id + ")]").exists());
+        mockMvc.perform(get("/todos").header("X-Owner-Id", "bob"))
+                .andExpect(jsonPath("$[?(@.id == " + id + ")]").doesNotExist());
+        mockMvc.perform(get("/todos/{id}", id).header("X-Owner-Id", "bob"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(patch("/todos/{id}/done", id).header("X-Owner-Id", "bob"))
+                .andExpect(status().isNotFound());
+
+        request.setOwnerId("alice");
+        mockMvc.perform(post("/todos")
+                .header("X-Owner-Id", "bob")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldMarkTodoPastDueWhenItFallsDueWithoutWaitingForSweep() throws Exception {
+        CreateTodoRequest request = new CreateTodoRequest();
+        request.setDescription("Due soon task");
+        request.setDueAt(OffsetDateTime.now().plusSeconds(1));
+
+        String response = mockMvc.perform(post("/todos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andReturn().getResponse().getContentAsString();
+
+        long id = objectMapper.readTree(response).get("id").asLong();
+
+        String status = "NOT_DONE";
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!status.equals("PAST_DUE") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            status = objectMapper.readTree(mockMvc.perform(get("/todos/{id}", id))
+                    .andReturn().getResponse().getContentAsString()).get("status").asText();
+        }
+
+        assertThat(status).isEqualTo("PAST_DUE");
+    }
+
+    @Test
+    void shouldPageThroughTodosWithCursor() throws Exception {
+        OffsetDateTime dueAt = OffsetDateTime.now().plusYears(5).truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 0; i < 3; i++) {
+            CreateTodoRequest request = new CreateTodoRequest();
+            request.setDescription("Paged task " + i);
+            request.setDueAt(dueAt.plusMinutes(i));
+            mockMvc.perform(post("/todos")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isCreated());
+        }
+
+        String firstPage = mockMvc.perform(get("/todos")
+                .param("limit", "2")
+                .param("sort", "dueAt")
+                .param("dueFrom", dueAt.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].description").value("Paged task 0"))
+                .andExpect(jsonPath("$.nextCursor").isString())
+                .andReturn().getResponse().getContentAsString();
+
+        String cursor = objectMapper.readTree(firstPage).get("nextCursor").asText();
+
+        mockMvc.perform(get("/todos")
+                .param("limit", "2")
+                .param("sort", "dueAt")
+                .param("dueFrom", dueAt.toString())
+                .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].description").value("Paged task 2"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() throws Exception {
+        mockMvc.perform(get("/todos")
+                .param("limit", "10")
+                .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldStreamExportAsNdjsonAndCsv() throws Exception {
+        CreateTodoRequest request = new CreateTodoRequest();
+        request.setDescription("Export, \"quoted\" task");
+        request.setDueAt(OffsetDateTime.now().plusDays(1));
+        mockMvc.perform(post("/todos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+
+        MvcResult ndjson = mockMvc.perform(get("/todos/export")
+                .param("includeDone", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        for (String line : body.split("\n")) {
+            objectMapper.readTree(line);
+        }
+
+        MvcResult csv = mockMvc.perform(get("/todos/export")
+                .param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(csv))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("id,description,status,createdAt,dueAt,doneAt")))
+                .andExpect(content().string(containsString("\"Export, \"\"quoted\"\" task\",NOT_DONE")));
+    }
+
+    @Test
+    void shouldCreateAndTransitionTodosInBatch() throws Exception {
+        CreateTodoRequest valid = new CreateTodoRequest();
+        valid.setDescription("Batch task");
+        valid.setDueAt(OffsetDateTime.now().plusDays(1));
+        CreateTodoRequest invalid = new CreateTodoRequest();
+        invalid.setDescription(" ");
+        invalid.setDueAt(OffsetDateTime.now().plusDays(1));
+
+        String response = mockMvc.perform(post("/todos/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(valid, invalid, valid))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(2))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[1].outcome").value("INVALID"))
+                .andExpect(jsonPath("$.results[2].todo.status").value("NOT_DONE"))
+                .andReturn().getResponse().getContentAsString();
+
+        long first = objectMapper.readTree(response).at("/results/0/id").asLong();
+        long third = objectMapper.readTree(response).at("/results/2/id").asLong();
+
+        mockMvc.perform(patch("/todos/batch/done")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(first, third, Long.MAX_VALUE))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(2))
+                .andExpect(jsonPath("$.results[1].todo.status").value("DONE"))
+                .andExpect(jsonPath("$.results[2].outcome").value("NOT_FOUND"));
+
+        mockMvc.perform(get("/todos/{id}", third))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("DONE"));
+    }
+
+    @Test
+    void shouldRejectOnlyTheBatchEntriesWithAnUnacceptableOwner() throws Exception {
+        // given
+        CreateTodoRequest own = new CreateTodoRequest();
+        own.setDescription("Own batch task");
+        own.setDueAt(OffsetDateTime.now().plusDays(1));
+        CreateTodoRequest foreign = new CreateTodoRequest();
+        foreign.setOwnerId("someone-else");
+        foreign.setDescription("Foreign batch task");
+        foreign.setDueAt(OffsetDateTime.now().plusDays(1));
+        CreateTodoRequest malformed = new CreateTodoRequest();
+        malformed.setOwnerId("not an owner!");
+        malformed.setDescription("Malformed batch task");
+        malformed.setDueAt(OffsetDateTime.now().plusDays(1));
+
+        // when / then
+        mockMvc.perform(post("/todos/batch")
+                .header("X-Owner-Id", "batch-owner")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(own, foreign, malformed))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.results[0].todo.ownerId").value("batch-owner"))
+                .andExpect(jsonPath("$.results[1].outcome").value("INVALID"))
+                .andExpect(jsonPath("$.results[1].error").value(containsString("X-Owner-Id")))
+                .andExpect(jsonPath("$.results[2].outcome").value("INVALID"));
+        mockMvc.perform(get("/todos").header("X-Owner-Id", "someone-else"))
+                .andExpect(content().json("[]"));
+    }
+
+    @Test
+    void shouldServeFreshStateAfterCachedRead() throws Exception {
+        CreateTodoRequest request = new CreateTodoRequest();
+        request.setDescription("Cached task");
+        request.setDueAt(OffsetDateTime.now().plusDays(1));
+
+        String response = mockMvc.perform(post("/todos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andReturn().getResponse().getContentAsString();
+
+        long id = objectMapper.readTree(response).get("id").asLong();
+
+        // first read populates the cache
+        mockMvc.perform(get("/todos/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("NOT_DONE"));
+
+        mockMvc.perform(patch("/todos/{id}/done", id))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/todos/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("DONE"));
+
+        mockMvc.perform(get("/actuator/metrics/cache.gets")
+                .param("tag", "cache:todos")
+                .param("tag", "result:miss"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measurements[0].value").isNumber());
+    }
+
+    @Test
+    void shouldExposeLatencyHistogramsForPrometheus() throws Exception {
+        mockMvc.perform(get("/todos").param("includeDone", "true"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+                .andExpect(content().string(containsString(
+                        "todo_service_seconds_bucket{class=\"com.example.todo_service.service.TodoService\"")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket")))
+                .andExpect(content().string(containsString("hikaricp_connections_acquire_seconds_bucket")));
+    }
+
+    @Test
+    void shouldStreamCommittedChangesAndResumeFromLastEventId() throws Exception {
+        MvcResult stream = mockMvc.perform(get("/todos/events").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String ready = awaitEvent(stream, "event:ready");
+        String readyId = ready.substring(ready.indexOf("id:") + 3, ready.indexOf('\n', ready.indexOf("id:")));
+
+        CreateTodoRequest request = new CreateTodoRequest();
+        request.setDescription("Streamed task");
+        request.setDueAt(OffsetDateTime.now().plusDays(1));
+        String response = mockMvc.perform(post("/todos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(response).get("id").asLong();
+        mockMvc.perform(patch("/todos/{id}/done", id))
+                .andExpect(status().isNoContent());
+
+        assertThat(awaitEvent(stream, "\"type\":\"DONE\"")).contains("\"ids\":[" + id + "]");
+
+        // a reconnecting client gets what it missed replayed
+        MvcResult resumed = mockMvc.perform(get("/todos/events").header("Last-Event-ID", readyId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(awaitEvent(resumed, "\"type\":\"CREATED\"")).contains("\"ids\":[" + id + "]");
+
+        // an id from another instance or run cannot be resumed
+        MvcResult foreign = mockMvc.perform(get("/todos/events").header("Last-Event-ID", "elsewhere-1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        awaitEvent(foreign, "event:reset");
+    }
+
+    @Test
+    void shouldStreamOnlyTheSubscribersOwnChanges() throws Exception {
+        // given
+        MvcResult streamA = mockMvc.perform(get("/todos/events").header("X-Owner-Id", "stream-a"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult streamB = mockMvc.perform(get("/todos/events").header("X-Owner-Id", "stream-b"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String ready = awaitEvent(streamB, "event:ready");
+        String readyId = ready.substring(ready.indexOf("id:") + 3, ready.indexOf('\n', ready.indexOf("id:")));
+        awaitEvent(streamA, "event:ready");
+
+        // when: A's item is written first, then B's
+        long a = createTodo("stream-a", "Owner A task");
+        long b = createTodo("stream-b", "Owner B task");
+
+        // then
+        assertThat(awaitEvent(streamA, "\"ids\":[" + a + "]")).doesNotContain("\"ids\":[" + b + "]");
+        assertThat(awaitEvent(streamB, "\"ids\":[" + b + "]")).doesNotContain("\"ids\":[" + a + "]");
+
+        // a resumed stream only replays its owner's changes
+        MvcResult resumed = mockMvc.perform(get("/todos/events")
+                .header("X-Owner-Id", "stream-b")
+                .header("Last-Event-ID", readyId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(awaitEvent(resumed, "\"ids\":[" + b + "]")).doesNotContain("\"ids\":[" + a + "]");
+    }
+
+    private static String awaitEvent(MvcResult stream, String marker) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        String body = stream.getResponse().getContentAsString();
+        while (!body.contains(marker) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            body = stream.getResponse().getContentAsString();
+        }
+        assertThat(body).contains(marker);
+        return body;
+    }
+
+    @Test
+    void shouldKeepStatisticsCurrentWithoutQuerying() throws Exception {
+        // given
+        JsonNode before = stats();
+        CreateTodoRequest request = new CreateTodoRequest();
+        request.setDescription("Counted task");
+        request.setDueAt(OffsetDateTime.now().plusHours(3));
+
+        // when: created, due later today
+        String response = mockMvc.perform(post("/todos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(response).get("id").asLong();
+        JsonNode created = stats();
+
+        // then
+        assertThat(dueNextDay(created)).isEqualTo(dueNextDay(before) + 1);
+
+        // when: done
+        mockMvc.perform(patch("/todos/{id}/done", id))
+                .andExpect(status().isNoContent());
+        JsonNode done = stats();
+
+        // then
+        assertThat(dueNextDay(done)).isEqualTo(dueNextDay(before));
+        assertThat(done.at("/byStatus/DONE").asLong()).isEqualTo(before.at("/byStatus/DONE").asLong() + 1);
+        assertThat(done.at("/completionTime/count").asLong())
+                .isEqualTo(before.at("/completionTime/count").asLong() + 1);
+        assertThat(done.at("/completionTime/p50").isTextual()).isTrue();
+    }
+
+    @Test
+    void shouldKeepStatisticsPerOwner() throws Exception {
+        // given
+        long before = stats().at("/byStatus/NOT_DONE").asLong();
+
+        // when
+        createTodo("stats-owner", "Someone else's task");
+
+        // then
+        assertThat(stats().at("/byStatus/NOT_DONE").asLong()).isEqualTo(before);
+        String body = mockMvc.perform(get("/todos/stats").header("X-Owner-Id", "stats-owner"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(objectMapper.readTree(body).at("/byStatus/NOT_DONE").asLong()).isEqualTo(1);
+    }
+
+    private JsonNode stats() throws Exception {
+        String body = mockMvc.perform(get("/todos/stats"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private static long dueNextDay(JsonNode stats) {
+        return stats.at("/openByDueWindow/NEXT_DAY").asLong();
+    }
+
+    @Test
+    void shouldSearchDescriptionsByPrefixWithFilters() throws Exception {
+        // given
+        awaitSearchIndex();
+        long exact = createTodo("Quarterly zebrafish report");
+        long prefixed = createTodo("Zebrafishing trip planning");
+        createTodo("Quarterly budget");
+        mockMvc.perform(patch("/todos/{id}/done", prefixed))
+                .andExpect(status().isNoContent());
+
+        // when / then: exact matches rank above prefix matches
+        mockMvc.perform(get("/todos/search").param("q", "zebrafish"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(contains((int) exact, (int) prefixed)));
+
+        // every word has to match
+        mockMvc.perform(get("/todos/search").param("q", "quart ZEBRA"))
+                .andExpect(jsonPath("$[*].id").value(contains((int) exact)));
+
+        // filters apply to the current status
+        mockMvc.perform(get("/todos/search").param("q", "zebrafish").param("status", "DONE"))
+                .andExpect(jsonPath("$[*].id").value(contains((int) prefixed)));
+
+        // other owners search their own partition only
+        mockMvc.perform(get("/todos/search").param("q", "zebrafish").header("X-Owner-Id", "someone-else"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+
+        // edits are indexed as they commit
+        mockMvc.perform(patch("/todos/{id}/description", exact)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"description\":\"Weekly report\"}"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/todos/search").param("q", "zebrafish"))
+                .andExpect(jsonPath("$[*].id").value(contains((int) prefixed)));
+        mockMvc.perform(get("/todos/search").param("q", "weekly"))
+                .andExpect(jsonPath("$[*].id").value(contains((int) exact)));
+    }
+
+    @Test
+    void shouldReloadSearchPartitionWrittenByAnotherInstance() throws Exception {
+        // given
+        awaitSearchIndex();
+        CreateTodoRequest request = new CreateTodoRequest();
+        request.setDescription("Feed the lemming");
+        request.setDueAt(OffsetDateTime.now().plusDays(1));
+        String created = mockMvc.perform(post("/todos")
+                .header("X-Owner-Id", "search-replica")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(created).get("id").asLong();
+        searchIndex.reconcile();
+
+        // when: another instance rewrites the description, which publishes no event here
+        jdbc.update("UPDATE todo_items SET description = ?, version = version + 1 WHERE id = ?", "Feed the narwhal", id);
+        jdbc.update("UPDATE todo_owner_changes SET changes = changes + 1 WHERE owner_id = ?", "search-replica");
+        searchIndex.reconcile();
+
+        // then
+        mockMvc.perform(get("/todos/search").header("X-Owner-Id", "search-replica").param("q", "narwhal"))
+                .andExpect(jsonPath("$[*].id").value(contains((int) id)));
+        mockMvc.perform(get("/todos/search").header("X-Owner-Id", "search-replica").param("q", "lemming"))
+                .andExpect(content().json("[]"));
+    }
+
+    private void awaitSearchIndex() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!searchIndex.isReady() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(searchIndex.isReady()).isTrue();
+    }
+
+    private long createTodo(String description) throws Exception {
+        return createTodo(TodoItem.DEFAULT_OWNER, description);
+    }
+
+    private long createTodo(String ownerId, String description) throws Exception {
+        CreateTodoRequest request = new CreateTodoRequest();
+        request.setDescription(description);
+        request.setDueAt(OffsetDateTime.now().plusDays(1));
+        String response = mockMvc.perform(post("/todos")
+                .header("X-Owner-Id", ownerId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+
+    @Test
+    void shouldReturnNotFoundForUnknownTodo() throws Exception {
+        mockMvc.perform(get("/todos/{id}", Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldSupportConditionalRequestsWithVersionETags() throws Exception {
+        CreateTodoRequest request = new CreateTodoRequest();
+        request.setDescription("Versioned task");
+        request.setDueAt(OffsetDateTime.now().plusDays(1));
+
+        String response = mockMvc.perform(post("/todos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andReturn().getResponse().getContentAsString();
+
+        long id = objectMapper.readTree(response).get("id").asLong();
+
+        String etag = mockMvc.perform(get("/todos/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0\""))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/todos/{id}", id).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(patch("/todos/{id}/done", id).header("If-Match", etag))
+                .andExpect(status().isNoContent());
+
+        // the old version is now stale
+        mockMvc.perform(patch("/todos/{id}/not-done", id).header("If-Match", etag))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/todos/{id}", id).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(jsonPath("$.status").value("DONE"));
+    }
+
+    @Test
+    void shouldAnswerUnchangedListingWithNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/todos"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/todos").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        String fullEtag = mockMvc.perform(get("/todos").param("includeDone", "true"))
+                .andExpect(header().string("Vary", "Accept, Accept-Encoding"))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/todos").param("includeDone", "true").header("If-None-Match", fullEtag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("Vary", "Accept, Accept-Encoding"));
+
+        CreateTodoRequest request = new CreateTodoRequest();
+        request.setDescription("Listing change");
+        request.setDueAt(OffsetDateTime.now().plusDays(1));
+        mockMvc.perform(post("/todos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/todos").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldNoticeWritesCommittedByAnotherInstance() throws Exception {
+        // given: an item that is cached by id, in the listing snapshot and behind a listing ETag
+        CreateTodoRequest request = new CreateTodoRequest();
+        request.setDescription("Written here");
+        request.setDueAt(OffsetDateTime.now().plusDays(1));
+        String created = mockMvc.perform(post("/todos")
+                .header("X-Owner-Id", "replica-owner")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(created).get("id").asLong();
+
+        mockMvc.perform(get("/todos/{id}", id).header("X-Owner-Id", "replica-owner"))
+                .andExpect(jsonPath("$.description").value("Written here"));
+        mockMvc.perform(get("/todos").header("X-Owner-Id", "replica-owner"))
+                .andExpect(jsonPath("$[0].description").value("Written here"));
+        String etag = mockMvc.perform(get("/todos")
+                .header("X-Owner-Id", "replica-owner")
+                .param("includeDone", "true"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // when: another instance changes the row, which publishes no event here
+        jdbc.update("UPDATE todo_items SET description = ?, version = version + 1 WHERE id = ?", "Written elsewhere", id);
+        jdbc.update("UPDATE todo_owner_changes SET changes = changes + 1 WHERE owner_id = ?", "replica-owner");
+
+        // then: hits are answered from memory until the counters are refreshed
+        mockMvc.perform(get("/todos").header("X-Owner-Id", "replica-owner"))
+                .andExpect(jsonPath("$[0].description").value("Written here"));
+        assertThat(ownerChanges.refresh()).isPositive();
+        mockMvc.perform(get("/todos/{id}", id).header("X-Owner-Id", "replica-owner"))
+                .andExpect(jsonPath("$.description").value("Written elsewhere"));
+        mockMvc.perform(get("/todos").header("X-Owner-Id", "replica-owner"))
+                .andExpect(jsonPath("$[0].description").value("Written elsewhere"));
+        mockMvc.perform(get("/todos")
+                .header("X-Owner-Id", "replica-owner")
+                .header("If-None-Match", etag)
+                .param("includeDone", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].description").value("Written elsewhere"));
+    }
+
+    @Test
+    void shouldServeDefaultListingFromGzippedSnapshot() throws Exception {
+        CreateTodoRequest request = new CreateTodoRequest();
+        request.setDescription("Snapshot task");
+        request.setDueAt(OffsetDateTime.now().plusDays(1));
+        String created = mockMvc.perform(post("/todos")
+                .header("X-Owner-Id", "snapshot-owner")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(created).get("id").asLong();
+
+        MvcResult gzipped = mockMvc.perform(get("/todos")
+                .header("X-Owner-Id", "snapshot-owner")
+                .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", "Accept, Accept-Encoding"))
+                .andReturn();
+        String etag = gzipped.getResponse().getHeader("ETag");
+        JsonNode items;
+        try (GZIPInputStream in = new GZIPInputStream(
+                new ByteArrayInputStream(gzipped.getResponse().getContentAsByteArray()))) {
+            items = objectMapper.readTree(in);
+        }
+        assertThat(items).hasSize(1);
+        assertThat(items.get(0).get("id").asLong()).isEqualTo(id);
+
+        mockMvc.perform(get("/todos")
+                .header("X-Owner-Id", "snapshot-owner")
+                .header("Accept-Encoding", "gzip")
+                .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("Vary", "Accept, Accept-Encoding"));
+
+        mockMvc.perform(patch("/todos/{id}/done", id).header("X-Owner-Id", "snapshot-owner"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/todos")
+                .header("X-Owner-Id", "snapshot-owner")
+                .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(header().string("Vary", "Accept, Accept-Encoding"))
+                .andExpect(content().json("[]"));
+    }
+
+    @Test
+    void shouldAcceptAndProduceCbor() throws Exception {
+        CBORMapper cbor = CborConfiguration.cborMapper();
+        long dueAt = OffsetDateTime.now().plusDays(1).truncatedTo(ChronoUnit.MILLIS).toInstant().toEpochMilli();
+        byte[] request = cbor.writeValueAsBytes(Map.of("description", "Binary task", "dueAt", dueAt));
+
+        MvcResult created = mockMvc.perform(post("/todos")
+                .header("X-Owner-Id", "cbor-owner")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_CBOR)
+                .content(request))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+        JsonNode item = cbor.readTree(created.getResponse().getContentAsByteArray());
+        assertThat(item.get("dueAt").isNumber()).isTrue();
+        assertThat(item.get("dueAt").asLong()).isEqualTo(dueAt);
+        assertThat(item.get("status").asInt()).isEqualTo(TodoStatus.NOT_DONE.ordinal());
+
+        MvcResult listing = mockMvc.perform(get("/todos")
+                .header("X-Owner-Id", "cbor-owner")
+                .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+        List<TodoResponse> items = cbor.readValue(
+                listing.getResponse().getContentAsByteArray(), new TypeReference<List<TodoResponse>>() {
+                });
+        assertThat(items).extracting(TodoResponse::getDescription).containsExactly("Binary task");
+        assertThat(items.get(0).getDueAt().toInstant().toEpochMilli()).isEqualTo(dueAt);
+
+        // each representation has its own tag, and a JSON client is never answered from a CBOR one
+        String cborEtag = listing.getResponse().getHeader("ETag");
+        assertThat(cborEtag).endsWith("-cbor\"");
+        assertThat(listing.getResponse().getHeader("Vary")).contains("Accept");
+        mockMvc.perform(get("/todos")
+                .header("X-Owner-Id", "cbor-owner")
+                .param("includeDone", "true")
+                .header("If-None-Match", cborEtag))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+        mockMvc.perform(get("/todos")
+                .header("X-Owner-Id", "cbor-owner")
+                .param("limit", "10")
+                .accept(MediaType.APPLICATION_CBOR)
+                .header("If-None-Match", cborEtag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("Vary", "Accept"));
+        long id = item.get("id").asLong();
+        mockMvc.perform(get("/todos/{id}", id)
+                .header("X-Owner-Id", "cbor-owner")
+                .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string("ETag", "\"0-cbor\""))
+                .andExpect(header().string("Vary", "Accept"));
+        mockMvc.perform(patch("/todos/{id}/done", id)
+                .header("X-Owner-Id", "cbor-owner")
+                .header("If-Match", "\"0-cbor\""))
+                .andExpect(status().isNoContent());
+    }
 }
@@ -0,0 +1,172 @@
+package com.example.todo_service.controller;
+
+import com.example.todo_service.api.dto.CreateTodoRequest;
+import com.example.todo_service.domain.TodoItem;
+import com.example.todo_service.domain.TodoStatus;
+import com.example.todo_service.repository.TodoView;
+import com.example.todo_service.service.TodoService;
+import com.example.todo_service.service.writebehind.TodoStatusWriteBehind;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/* Flushes are triggered by the tests; the periodic one is pushed out of the way. */
+@SpringBootTest(properties = {
+        "todo.write-behind.enabled=true",
+        "todo.write-behind.max-lag=PT1H"
+})
+@AutoConfigureMockMvc
+class TodoWriteBehindIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TodoStatusWriteBehind writeBehind;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void shouldCoalesceTogglesIntoOneWrite() throws Exception {
+        // given
+        long id = create("Toggled task");
+
+        // when
+        mockMvc.perform(patch("/todos/{id}/done", id)).andExpect(status().isNoContent());
+        mockMvc.perform(patch("/todos/{id}/not-done", id)).andExpect(status().isNoContent());
+        mockMvc.perform(patch("/todos/{id}/done", id)).andExpect(status().isNoContent());
+
+        // then: visible at once, not yet written
+        mockMvc.perform(get("/todos/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(jsonPath("$.status").value("DONE"));
+        mockMvc.perform(get("/todos"))
+                .andExpect(jsonPath("$[*].id", not(hasItem((int) id))));
+        assertThat(todoService.getViewById(id).status()).isEqualTo(TodoStatus.NOT_DONE);
+        assertThat(writeBehind.hasPending(TodoItem.DEFAULT_OWNER)).isTrue();
+        assertThat(writeBehind.hasPending("someone-else")).isFalse();
+
+        assertThat(writeBehind.flush()).isEqualTo(1);
+        assertThat(writeBehind.hasPending(TodoItem.DEFAULT_OWNER)).isFalse();
+        TodoView stored = todoService.getViewById(id);
+        assertThat(stored.status()).isEqualTo(TodoStatus.DONE);
+        assertThat(stored.doneAt()).isNotNull();
+        assertThat(stored.version()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldDropDeferredTransitionWhenRowChangedUnderneath() throws Exception {
+        // given
+        long id = create("Contended task");
+        mockMvc.perform(patch("/todos/{id}/done", id)).andExpect(status().isNoContent());
+
+        // when: a writer that does not go through the controller
+        todoService.changeDescription(id, "Changed elsewhere");
+
+        // then
+        assertThat(writeBehind.flush()).isZero();
+        TodoView stored = todoService.getViewById(id);
+        assertThat(stored.status()).isEqualTo(TodoStatus.NOT_DONE);
+        assertThat(stored.description()).isEqualTo("Changed elsewhere");
+        mockMvc.perform(get("/todos/{id}", id))
+                .andExpect(jsonPath("$.status").value("NOT_DONE"));
+    }
+
+    @Test
+    void shouldReapplyDeferredTransitionOverPastDueFlip() throws Exception {
+        // given
+        long doneId = create("Done before the flip");
+        long toggledId = create("Toggled back before the flip");
+        mockMvc.perform(patch("/todos/{id}/done", doneId)).andExpect(status().isNoContent());
+        mockMvc.perform(patch("/todos/{id}/done", toggledId)).andExpect(status().isNoContent());
+        mockMvc.perform(patch("/todos/{id}/not-done", toggledId)).andExpect(status().isNoContent());
+
+        // when: the deadline index flips both rows before the flush
+        assertThat(todoService.markPastDue(List.of(doneId, toggledId))).isEqualTo(2);
+
+        // then
+        assertThat(writeBehind.flush()).isEqualTo(1);
+        TodoView done = todoService.getViewById(doneId);
+        assertThat(done.status()).isEqualTo(TodoStatus.DONE);
+        assertThat(done.doneAt()).isNotNull();
+        assertThat(done.version()).isEqualTo(2);
+        assertThat(todoService.getViewById(toggledId).status()).isEqualTo(TodoStatus.PAST_DUE);
+        mockMvc.perform(get("/todos/{id}", doneId))
+                .andExpect(header().string("ETag", "\"2\""))
+                .andExpect(jsonPath("$.status").value("DONE"));
+    }
+
+    @Test
+    void shouldWritePendingTransitionBeforeConditionalRequest() throws Exception {
+        // given
+        long id = create("Conditional task");
+        mockMvc.perform(patch("/todos/{id}/done", id)).andExpect(status().isNoContent());
+
+        // when / then: the pending version is the one If-Match is checked against
+        mockMvc.perform(patch("/todos/{id}/not-done", id).header("If-Match", "\"1\""))
+                .andExpect(status().isNoContent());
+        TodoView stored = todoService.getViewById(id);
+        assertThat(stored.status()).isEqualTo(TodoStatus.NOT_DONE);
+        assertThat(stored.version()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotDeferTransitionsOfItemsClaimedForArchive() throws Exception {
+        // given
+        long pendingId = create("Pending task");
+        long claimedId = create("Claimed task");
+        assertThat(writeBehind.markDone(null, pendingId, null)).isTrue();
+
+        // when: a transition arrives while the archiving transaction is open
+        boolean deferred = new TransactionTemplate(transactionManager).execute(status -> {
+            assertThat(writeBehind.claimForArchive(List.of(pendingId, claimedId))).containsExactly(claimedId);
+            return CompletableFuture.supplyAsync(() -> writeBehind.markDone(null, claimedId, null)).join();
+        });
+
+        // then: written synchronously, and deferred again once the claim is released
+        assertThat(deferred).isFalse();
+        assertThat(todoService.getViewById(claimedId).status()).isEqualTo(TodoStatus.DONE);
+        assertThat(writeBehind.markNotDone(null, claimedId, null)).isTrue();
+        writeBehind.flush();
+    }
+
+    private long create(String description) throws Exception {
+        CreateTodoRequest request = new CreateTodoRequest();
+        request.setDescription(description);
+        request.setDueAt(OffsetDateTime.now().plusDays(1));
+        String response = mockMvc.perform(post("/todos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.todo_service.scheduler;
+
+import com.example.todo_service.repository.PastDueSweepLeaseRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class PastDueShardLeasesIT {
+
+    private static final int SHARD = 7;
+
+    @Autowired
+    private PastDueSweepLeaseRepository repository;
+
+    @Test
+    void shouldLetOnlyOneInstanceHoldAShard() {
+        // given
+        PastDueShardLeases first = new PastDueShardLeases(repository, "instance-a", Duration.ofMinutes(2));
+        PastDueShardLeases second = new PastDueShardLeases(repository, "instance-b", Duration.ofMinutes(2));
+        // past whatever the startup sweep of this context is still holding
+        OffsetDateTime now = OffsetDateTime.now().plusDays(1);
+
+        // when / then
+        assertThat(first.tryClaim(SHARD, now)).isTrue();
+        assertThat(second.tryClaim(SHARD, now)).isFalse();
+        assertThat(first.renew(SHARD)).isTrue();
+
+        first.release(SHARD, now);
+        assertThat(second.tryClaim(SHARD, now.plusSeconds(1))).isTrue();
+        assertThat(first.renew(SHARD)).isFalse();
+
+        second.release(SHARD, now.minusDays(2));
+        assertThat(repository.findById(SHARD).orElseThrow().getHolder()).isEqualTo("instance-b");
+    }
+}